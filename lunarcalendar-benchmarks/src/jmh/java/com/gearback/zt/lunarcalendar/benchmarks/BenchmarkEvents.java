@@ -0,0 +1,90 @@
+package com.gearback.zt.lunarcalendar.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+import com.gearback.zt.lunarcalendar.core.helpers.EventsCatalogReader;
+
+/**
+ * Event data shared by the benchmarks: the bundled official catalog and generated local events.
+ */
+final class BenchmarkEvents {
+    static final int FIRST_YEAR = 1440;
+    static final int YEARS = 3;
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * The compiled events catalog, read whole so benchmarks do not measure the class loader.
+     */
+    static byte[] readCatalog() throws IOException {
+        InputStream is = BenchmarkEvents.class.getClassLoader().getResourceAsStream(EventsCatalogReader.ASSET_NAME);
+        if (is == null) {
+            throw new IOException(EventsCatalogReader.ASSET_NAME + " is not on the classpath");
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    static CalendarEngine.EventsSource catalogSource(final byte[] catalog) {
+        return new CalendarEngine.EventsSource() {
+            @Override
+            public List<CalendarEvent> readEvents() {
+                try {
+                    return EventsCatalogReader.read(new ByteArrayInputStream(catalog));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Local events spread over the benchmarked years, one in ten of them recurring yearly. The
+     * seed is fixed so every run indexes the same events.
+     */
+    static List<CalendarEvent> localEvents(int count) {
+        Random random = new Random(count);
+        List<CalendarEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int year = random.nextInt(10) == 0 ? -1 : FIRST_YEAR + random.nextInt(YEARS);
+            IslamicDate date = new IslamicDate(year, 1 + random.nextInt(12), 1 + random.nextInt(29));
+            events.add(new CalendarEvent(null, null, date, "Event " + i, "", random.nextInt(20) == 0, false, "Local"));
+        }
+        return events;
+    }
+
+    /**
+     * The first 29 days of every month of the benchmarked years.
+     */
+    static IslamicDate[] days() {
+        IslamicDate[] days = new IslamicDate[YEARS * 12 * 29];
+        int i = 0;
+        for (int year = FIRST_YEAR; year < FIRST_YEAR + YEARS; year++) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 1; day <= 29; day++) {
+                    days[i++] = new IslamicDate(year, month, day);
+                }
+            }
+        }
+        return days;
+    }
+}
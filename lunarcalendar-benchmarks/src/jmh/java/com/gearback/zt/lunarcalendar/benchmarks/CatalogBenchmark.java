@@ -0,0 +1,41 @@
+package com.gearback.zt.lunarcalendar.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+import com.gearback.zt.lunarcalendar.core.helpers.EventsCatalogReader;
+
+/**
+ * Loading the official events catalog, on its own and together with building its index, which
+ * is what the first month page of a process pays for.
+ */
+@State(Scope.Thread)
+public class CatalogBenchmark {
+    private byte[] mCatalog;
+    private IslamicDate mDay;
+
+    @Setup
+    public void setUp() throws IOException {
+        mCatalog = BenchmarkEvents.readCatalog();
+        mDay = new IslamicDate(BenchmarkEvents.FIRST_YEAR, 1, 10);
+    }
+
+    @Benchmark
+    public List<CalendarEvent> readCatalog() throws IOException {
+        return EventsCatalogReader.read(new ByteArrayInputStream(mCatalog));
+    }
+
+    @Benchmark
+    public List<CalendarEvent> readAndIndexCatalog() {
+        return new CalendarEngine(BenchmarkEvents.catalogSource(mCatalog)).getOfficialEventsForDay(mDay);
+    }
+}
@@ -0,0 +1,46 @@
+package com.gearback.zt.lunarcalendar.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+/**
+ * The small calls made for every day cell and header: month lengths, digits and week day names.
+ */
+@State(Scope.Thread)
+public class DateFormattingBenchmark {
+    private CalendarEngine mEngine;
+    private IslamicDate[] mDays;
+    private int mDayIndex;
+
+    @Setup
+    public void setUp() {
+        mEngine = new CalendarEngine(CalendarEngine.NO_EVENTS);
+        mDays = BenchmarkEvents.days();
+    }
+
+    private IslamicDate nextDay() {
+        mDayIndex = (mDayIndex + 1) % mDays.length;
+        return mDays[mDayIndex];
+    }
+
+    @Benchmark
+    public int getMonthLength() {
+        IslamicDate day = nextDay();
+        return mEngine.getMonthLength(day.getYear(), day.getMonth());
+    }
+
+    @Benchmark
+    public String formatNumber() {
+        return mEngine.formatNumber(nextDay().getDayOfMonth());
+    }
+
+    @Benchmark
+    public String getWeekDayName() {
+        return mEngine.getWeekDayName(nextDay());
+    }
+}
@@ -0,0 +1,92 @@
+package com.gearback.zt.lunarcalendar.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+import com.gearback.zt.lunarcalendar.core.models.LunarYear;
+
+/**
+ * Building the days of a month page, with the official catalog and a growing number of local
+ * events. Each call moves on to the next month so no month is favoured.
+ */
+@State(Scope.Thread)
+public class GetDaysBenchmark {
+    /**
+     * The months cachedMonth pages through. They must all fit in the month cache: cycling through
+     * more months than an LRU holds misses on every call.
+     */
+    private static final int CACHED_MONTHS = 12;
+
+    @Param({"0", "1000", "10000"})
+    public int localEvents;
+
+    private CalendarEngine mEngine;
+    private IslamicDate mToday;
+    private int mMonthIndex;
+    private int mCachedMonthIndex;
+    private int mYearIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        mEngine = new CalendarEngine(BenchmarkEvents.catalogSource(BenchmarkEvents.readCatalog()));
+        mEngine.replaceLocalEvents(BenchmarkEvents.localEvents(localEvents));
+        mToday = new IslamicDate(BenchmarkEvents.FIRST_YEAR + 1, 6, 15);
+        // Loads and indexes the official events outside of the measurement
+        mEngine.getAllEventsForDay(mToday);
+
+        // Fills the cache, then checks every month is served from it so cachedMonth never builds
+        for (int i = 0; i < CACHED_MONTHS; i++) {
+            getMonth(i, true);
+        }
+        for (int i = 0; i < CACHED_MONTHS; i++) {
+            if (getMonth(i, false) == null) {
+                throw new IllegalStateException("Month " + i + " is not cached");
+            }
+        }
+    }
+
+    /**
+     * A month that is not cached yet, as when paging to a month for the first time.
+     */
+    @Benchmark
+    public List<Day> buildMonth() {
+        mEngine.getMonthCache().clear();
+        return nextMonth();
+    }
+
+    /**
+     * A month served from the month cache, as when paging back and forth.
+     */
+    @Benchmark
+    public List<Day> cachedMonth() {
+        mCachedMonthIndex = (mCachedMonthIndex + 1) % CACHED_MONTHS;
+        return getMonth(mCachedMonthIndex, false);
+    }
+
+    /**
+     * The days of a whole year for the year overview, to compare with twelve month builds.
+     */
+    @Benchmark
+    public LunarYear buildYear() {
+        mYearIndex = (mYearIndex + 1) % BenchmarkEvents.YEARS;
+        return mEngine.getLunarYear(BenchmarkEvents.FIRST_YEAR + mYearIndex, mToday);
+    }
+
+    private List<Day> nextMonth() {
+        mMonthIndex = (mMonthIndex + 1) % (BenchmarkEvents.YEARS * 12);
+        return getMonth(mMonthIndex, true);
+    }
+
+    private List<Day> getMonth(int monthIndex, boolean build) {
+        return mEngine.getDays(BenchmarkEvents.FIRST_YEAR + monthIndex / 12, monthIndex % 12 + 1, mToday, 0, build);
+    }
+}
@@ -0,0 +1,46 @@
+package com.gearback.zt.lunarcalendar.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+/**
+ * Looking up the official and local events of a day, as done for every day of a month page. Each
+ * call moves on to the next day of the benchmarked years.
+ */
+@State(Scope.Thread)
+public class LookupBenchmark {
+    @Param({"0", "1000", "10000"})
+    public int localEvents;
+
+    private CalendarEngine mEngine;
+    private IslamicDate[] mDays;
+    private int mDayIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        mEngine = new CalendarEngine(BenchmarkEvents.catalogSource(BenchmarkEvents.readCatalog()));
+        mEngine.replaceLocalEvents(BenchmarkEvents.localEvents(localEvents));
+        mDays = BenchmarkEvents.days();
+        mEngine.getAllEventsForDay(mDays[0]);
+    }
+
+    private IslamicDate nextDay() {
+        mDayIndex = (mDayIndex + 1) % mDays.length;
+        return mDays[mDayIndex];
+    }
+
+    @Benchmark
+    public List<CalendarEvent> getAllEventsForDay() {
+        return mEngine.getAllEventsForDay(nextDay());
+    }
+}
@@ -0,0 +1,679 @@
+package com.gearback.zt.lunarcalendar.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.Constants;
+import com.gearback.zt.calendarcore.core.models.AbstractDate;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.helpers.EventIndex;
+import com.gearback.zt.lunarcalendar.core.helpers.EventRangeIterator;
+import com.gearback.zt.lunarcalendar.core.helpers.EventTypes;
+import com.gearback.zt.lunarcalendar.core.helpers.HolidayCalendar;
+import com.gearback.zt.lunarcalendar.core.helpers.IslamicMonthTable;
+import com.gearback.zt.lunarcalendar.core.helpers.LocalEventStorage;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthBuilder;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthCache;
+import com.gearback.zt.lunarcalendar.core.helpers.NumberFormatter;
+import com.gearback.zt.lunarcalendar.core.helpers.YearBuilder;
+import com.gearback.zt.lunarcalendar.core.models.LunarYear;
+
+/**
+ * The calendar without Android: month lengths, the official and local events and their indexes,
+ * month building and caching, and number and date formatting. {@code LunarCalendarHandler} wraps
+ * it for the views; on a plain JVM it can be used on its own, e.g. to precompute holidays on a
+ * server or to profile month building.
+ *
+ * Methods are safe to call from any thread.
+ */
+public class CalendarEngine {
+    private static final int HIGHLIGHT_LOCAL = 1;
+    private static final int HIGHLIGHT_OFFICIAL = 1 << 1;
+    private static final int HIGHLIGHT_AFGHANISTAN = 1 << 2;
+    private static final int HIGHLIGHT_IRAN = 1 << 3;
+    private static final int HIGHLIGHT_ANCIENT = 1 << 4;
+    private static final int HIGHLIGHT_ISLAMIC = 1 << 5;
+    private static final int HIGHLIGHT_GREGORIAN = 1 << 6;
+    private static final int HIGHLIGHT_AD = 1 << 7;
+    private static final int HIGHLIGHT_ALL = (1 << 8) - 1;
+
+    public interface EventsSource {
+        List<CalendarEvent> readEvents();
+    }
+
+    public static final EventsSource NO_EVENTS = new EventsSource() {
+        @Override
+        public List<CalendarEvent> readEvents() {
+            return new ArrayList<>();
+        }
+    };
+
+    private volatile IslamicMonthTable mMonthTable = IslamicMonthTable.getArithmetic();
+
+    private volatile int mHighlights = HIGHLIGHT_ALL;
+
+    private volatile char[] mPreferredDigits = Constants.PERSIAN_DIGITS;
+    private volatile NumberFormatter mNumberFormatter = new NumberFormatter(mPreferredDigits);
+
+    private String[] mMonthNames = {
+            "محرم",
+            "صفر",
+            "ربیع‌الاول",
+            "ربیع‌الثانی",
+            "جمادی‌الاول",
+            "جمادی‌الثانی",
+            "رجب",
+            "شعبان",
+            "رمضان",
+            "شوال",
+            "ذی‌القعده",
+            "ذی‌الحجه"
+    };
+    private String[] mWeekDaysNames = {
+            "شنبه",
+            "یک‌شنبه",
+            "دوشنبه",
+            "سه‌شنبه",
+            "چهارشنبه",
+            "پنج‌شنبه",
+            "جمعه"
+    };
+
+    private EventsSource mOfficialEventsSource;
+    private List<CalendarEvent> mOfficialEvents;
+    private EventIndex mOfficialIndex;
+
+    private volatile List<CalendarEvent> mLocalEvents = new ArrayList<>();
+    private volatile EventIndex mLocalIndex = new EventIndex(mLocalEvents);
+    private final Object mLocalEventsLock = new Object();
+    private volatile LocalEventStorage mLocalEventStorage;
+
+    private final MonthCache mMonthCache = new MonthCache(MonthCache.DEFAULT_MAX_SIZE);
+    private volatile CalendarMetricsListener mMetricsListener;
+
+    private volatile boolean mLocalHolidays = true;
+    private volatile HolidayCalendar mHolidayCalendar;
+
+    /**
+     * @param officialEventsSource Reads the official events, once, the first time they are needed
+     */
+    public CalendarEngine(EventsSource officialEventsSource) {
+        mOfficialEventsSource = officialEventsSource;
+    }
+
+    /**
+     * Replaces where the official events come from. They are read again on next use.
+     */
+    public CalendarEngine setOfficialEventsSource(EventsSource officialEventsSource) {
+        synchronized (this) {
+            mOfficialEventsSource = officialEventsSource;
+            mOfficialEvents = null;
+            mOfficialIndex = null;
+        }
+        mMonthCache.clear();
+        mHolidayCalendar = null;
+        return this;
+    }
+
+    private synchronized EventIndex getOfficialIndex() {
+        if (mOfficialIndex == null) {
+            CalendarMetricsListener metrics = mMetricsListener;
+            long start = metrics != null ? System.nanoTime() : 0;
+            if (mOfficialEvents == null)
+                mOfficialEvents = mOfficialEventsSource.readEvents();
+            mOfficialIndex = new EventIndex(mOfficialEvents);
+            if (metrics != null) {
+                metrics.onEventsCatalogLoaded(mOfficialEvents.size(), System.nanoTime() - start);
+            }
+        }
+        return mOfficialIndex;
+    }
+
+    public List<CalendarEvent> getOfficialEvents() {
+        getOfficialIndex();
+        return mOfficialEvents;
+    }
+
+    public int getMonthLength(int year, int month) {
+        return mMonthTable.getMonthLength(year, month);
+    }
+
+    public IslamicMonthTable getMonthTable() {
+        return mMonthTable;
+    }
+
+    /**
+     * Replaces the month lengths, e.g. with those of an observed calendar. Cached months are
+     * built again.
+     */
+    public CalendarEngine setMonthTable(IslamicMonthTable monthTable) {
+        mMonthTable = monthTable;
+        mMonthCache.clear();
+        mHolidayCalendar = null;
+        return this;
+    }
+
+    public String formatNumber(int number) {
+        return mNumberFormatter.format(number);
+    }
+
+    public String formatNumber(String number) {
+        return mNumberFormatter.format(number);
+    }
+
+    public char[] getPreferredDigits() {
+        return mPreferredDigits;
+    }
+
+    /**
+     * @param preferredDigits The ten digits to use, from zero to nine
+     */
+    public CalendarEngine setPreferredDigits(char[] preferredDigits) {
+        if (preferredDigits != mPreferredDigits) {
+            mPreferredDigits = preferredDigits;
+            mNumberFormatter = new NumberFormatter(preferredDigits);
+            onSettingsChanged();
+        }
+        return this;
+    }
+
+    public String dateToString(AbstractDate date) {
+        return formatNumber(date.getDayOfMonth()) + ' ' + getMonthName(date) + ' ' +
+                formatNumber(date.getYear());
+    }
+
+    public String dayTitleSummary(IslamicDate islamicDate) {
+        return getWeekDayName(islamicDate) + Constants.PERSIAN_COMMA + " " + dateToString(islamicDate);
+    }
+
+    public String[] monthsNamesOfCalendar(AbstractDate date) {
+        return mMonthNames.clone();
+    }
+
+    public String getMonthName(AbstractDate date) {
+        return mMonthNames[date.getMonth() - 1];
+    }
+
+    public String getWeekDayName(AbstractDate date) {
+        if (date instanceof IslamicDate)
+            date = DateConverter.islamicToCivil((IslamicDate) date);
+        else if (date instanceof PersianDate)
+            date = DateConverter.persianToCivil((PersianDate) date);
+
+        return mWeekDaysNames[date.getDayOfWeek() % 7];
+    }
+
+    public CalendarEngine setMonthNames(String[] monthNames) {
+        mMonthNames = monthNames;
+        return this;
+    }
+
+    public CalendarEngine setWeekDaysNames(String[] weekDaysNames) {
+        mWeekDaysNames = weekDaysNames;
+        return this;
+    }
+
+    public boolean isHighlightingLocalEvents() {
+        return isHighlighting(HIGHLIGHT_LOCAL);
+    }
+
+    public boolean isHighlightingOfficialEvents() {
+        return isHighlighting(HIGHLIGHT_OFFICIAL);
+    }
+
+    public boolean isHighlightAfghanistanEvents() {
+        return isHighlighting(HIGHLIGHT_AFGHANISTAN);
+    }
+
+    public boolean isHighlightIranEvents() {
+        return isHighlighting(HIGHLIGHT_IRAN);
+    }
+
+    public boolean isHighlightAncientEvents() {
+        return isHighlighting(HIGHLIGHT_ANCIENT);
+    }
+
+    public boolean isHighlightIslamicEvents() {
+        return isHighlighting(HIGHLIGHT_ISLAMIC);
+    }
+
+    public boolean isHighlightGregorianEvents() {
+        return isHighlighting(HIGHLIGHT_GREGORIAN);
+    }
+
+    public boolean isHighlightAdEvents() {
+        return isHighlighting(HIGHLIGHT_AD);
+    }
+
+    public CalendarEngine setHighlightLocalEvents(boolean highlightLocalEvents) {
+        setHighlighting(HIGHLIGHT_LOCAL, highlightLocalEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightOfficialEvents(boolean highlightOfficialEvents) {
+        setHighlighting(HIGHLIGHT_OFFICIAL, highlightOfficialEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightAfghanistanEvents(boolean highlightAfghanistanEvents) {
+        setHighlighting(HIGHLIGHT_AFGHANISTAN, highlightAfghanistanEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightIranEvents(boolean highlightIranEvents) {
+        setHighlighting(HIGHLIGHT_IRAN, highlightIranEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightAncientEvents(boolean highlightAncientEvents) {
+        setHighlighting(HIGHLIGHT_ANCIENT, highlightAncientEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightIslamicEvents(boolean highlightIslamicEvents) {
+        setHighlighting(HIGHLIGHT_ISLAMIC, highlightIslamicEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightGregorianEvents(boolean highlightGregorianEvents) {
+        setHighlighting(HIGHLIGHT_GREGORIAN, highlightGregorianEvents);
+        return this;
+    }
+
+    public CalendarEngine setHighlightAdEvents(boolean highlightAdEvents) {
+        setHighlighting(HIGHLIGHT_AD, highlightAdEvents);
+        return this;
+    }
+
+    private boolean isHighlighting(int highlight) {
+        return (mHighlights & highlight) != 0;
+    }
+
+    private synchronized void setHighlighting(int highlight, boolean highlighting) {
+        mHighlights = highlighting ? mHighlights | highlight : mHighlights & ~highlight;
+        onSettingsChanged();
+    }
+
+    /**
+     * The highlight settings packed into bits, the way month caching keys them.
+     */
+    public int getHighlightMask() {
+        return mHighlights;
+    }
+
+    /**
+     * The {@link EventTypes} whose official events are highlighted, none when official events are
+     * not highlighted at all. Islamic Afghanistan events need both the Islamic and the
+     * Afghanistan settings.
+     */
+    public int getHighlightedTypes() {
+        int highlights = mHighlights;
+        if ((highlights & HIGHLIGHT_OFFICIAL) == 0) {
+            return 0;
+        }
+        int types = 0;
+        if ((highlights & HIGHLIGHT_AFGHANISTAN) != 0) {
+            types |= EventTypes.AFGHANISTAN;
+        }
+        if ((highlights & HIGHLIGHT_IRAN) != 0) {
+            types |= EventTypes.IRAN;
+        }
+        if ((highlights & HIGHLIGHT_ANCIENT) != 0) {
+            types |= EventTypes.ANCIENT_IRAN;
+        }
+        if ((highlights & HIGHLIGHT_ISLAMIC) != 0) {
+            types |= EventTypes.ISLAMIC_IRAN;
+            if ((highlights & HIGHLIGHT_AFGHANISTAN) != 0) {
+                types |= EventTypes.ISLAMIC_AFGHANISTAN;
+            }
+        }
+        if ((highlights & HIGHLIGHT_GREGORIAN) != 0) {
+            types |= EventTypes.GREGORIAN;
+        }
+        if ((highlights & HIGHLIGHT_AD) != 0) {
+            types |= EventTypes.AD;
+        }
+        return types;
+    }
+
+    private void onSettingsChanged() {
+        mMonthCache.retainSettings(getHighlightMask(), mPreferredDigits);
+    }
+
+    public List<CalendarEvent> getOfficialEventsForDay(IslamicDate day){
+        return getOfficialIndex().getEventsForDay(day);
+    }
+
+    public List<CalendarEvent> getAllEventsForDay(IslamicDate day) {
+        CivilDate civilDate = DateConverter.islamicToCivil(day);
+        PersianDate persianDate = DateConverter.islamicToPersian(day);
+        List<CalendarEvent> events = getOfficialIndex().getEventsForDay(day, civilDate, persianDate);
+        getLocalIndex(day.getYear(), day.getMonth()).collect(day, civilDate, persianDate, events);
+        return events;
+    }
+
+    /**
+     * Returns the official and local events from one day to another, both included, in date
+     * order. Days are read lazily as the iterator advances, so an agenda can stop early; use
+     * {@link EventRangeIterator#getDay()} for the day of each event.
+     */
+    public EventRangeIterator getEventsInRange(IslamicDate from, IslamicDate to) {
+        return new EventRangeIterator(this, getOfficialIndex(), from, to);
+    }
+
+    public String getEventsTitle(IslamicDate day, boolean holiday) {
+        String titles = "";
+        boolean first = true;
+        List<CalendarEvent> dayEvents = getAllEventsForDay(day);
+
+        for (CalendarEvent event : dayEvents) {
+            if (event.isHoliday() == holiday) {
+                if (first) {
+                    first = false;
+
+                } else {
+                    titles = titles + "\n";
+                }
+                titles = titles + event.getTitle();
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Returns the days of an Islamic month, from the cache when possible.
+     *
+     * @param today       Today's date, to flag it among the days
+     * @param lunarOffset The lunar offset today was computed with, as part of the cache key
+     * @param build       Whether to build the month when it is not cached; if not, null is
+     *                    returned for such months
+     */
+    public List<Day> getDays(int year, int month, IslamicDate today, int lunarOffset, boolean build) {
+        MonthCache.Key key = new MonthCache.Key(year, month, getHighlightMask(), mPreferredDigits, lunarOffset);
+        List<Day> days = mMonthCache.get(key, today.getYear(), today.getMonth(), today.getDayOfMonth());
+        CalendarMetricsListener metrics = mMetricsListener;
+        if (metrics != null) {
+            metrics.onMonthCacheLookup(year, month, days != null);
+        }
+        if (days == null && build) {
+            int version = mMonthCache.getVersion();
+            MonthBuilder builder = newMonthBuilder(getLocalIndex(year, month));
+            builder.setCountingEvents(metrics != null);
+            long start = metrics != null ? System.nanoTime() : 0;
+            days = Collections.unmodifiableList(builder.build(year, month, today));
+            mMonthCache.put(key, today.getYear(), today.getMonth(), today.getDayOfMonth(), days, version);
+            if (metrics != null) {
+                metrics.onMonthBuilt(year, month, builder.getEventCount(), System.nanoTime() - start);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Builds the days of a whole Islamic year in one pass, flagged like the days of
+     * {@link #getDays}, for a year overview. Years are not cached.
+     *
+     * @param today Today's date, to flag it among the days
+     */
+    public LunarYear getLunarYear(int year, IslamicDate today) {
+        return new YearBuilder(this, getOfficialIndex()).build(year, today);
+    }
+
+    private HolidayCalendar getHolidayCalendar() {
+        HolidayCalendar holidayCalendar = mHolidayCalendar;
+        if (holidayCalendar == null) {
+            holidayCalendar = new HolidayCalendar(this, getOfficialIndex(), mLocalHolidays);
+            mHolidayCalendar = holidayCalendar;
+        }
+        return holidayCalendar;
+    }
+
+    /**
+     * Tells whether the day is a Friday or has a holiday event, the same days the month grid
+     * marks as holidays, without collecting the events of the day.
+     */
+    public boolean isHoliday(IslamicDate day) {
+        return getHolidayCalendar().isHoliday(day);
+    }
+
+    /**
+     * @return The number of holidays from one day to another, both included
+     */
+    public int countHolidays(IslamicDate from, IslamicDate to) {
+        return getHolidayCalendar().countHolidays(from, to);
+    }
+
+    /**
+     * @return The business day that many business days after the given day, or before it when
+     * negative
+     */
+    public IslamicDate addBusinessDays(IslamicDate day, int businessDays) {
+        return getHolidayCalendar().addBusinessDays(day, businessDays);
+    }
+
+    public boolean isCountingLocalHolidays() {
+        return mLocalHolidays;
+    }
+
+    /**
+     * Whether local holiday events count as holidays in {@link #isHoliday}, {@link #countHolidays}
+     * and {@link #addBusinessDays}, as they do in the month grid. They do by default.
+     */
+    public CalendarEngine setCountingLocalHolidays(boolean countingLocalHolidays) {
+        mLocalHolidays = countingLocalHolidays;
+        mHolidayCalendar = null;
+        return this;
+    }
+
+    private MonthBuilder newMonthBuilder(EventIndex localIndex) {
+        return new MonthBuilder(this, getOfficialIndex(), localIndex);
+    }
+
+    /**
+     * Tells whether the event falls on a day of the given Islamic month.
+     */
+    public boolean containsEvent(int year, int month, CalendarEvent event) {
+        return newMonthBuilder(mLocalIndex).containsEvent(year, month, event);
+    }
+
+    public MonthCache getMonthCache() {
+        return mMonthCache;
+    }
+
+    public CalendarMetricsListener getMetricsListener() {
+        return mMetricsListener;
+    }
+
+    /**
+     * Reports the catalog load, month cache lookups and month builds to the listener. Nothing is
+     * timed while no listener is set.
+     *
+     * @param metricsListener The listener, or null to stop reporting
+     */
+    public CalendarEngine setMetricsListener(CalendarMetricsListener metricsListener) {
+        mMetricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * The index to look up the local events of the given Islamic month in.
+     */
+    public EventIndex getLocalIndex(int year, int month) {
+        LocalEventStorage storage = mLocalEventStorage;
+        return storage != null ? storage.getMonthIndex(year, month) : mLocalIndex;
+    }
+
+    /**
+     * With a {@link #setLocalEventStorage(LocalEventStorage) storage} set, this reads every
+     * stored event into a new list.
+     */
+    public List<CalendarEvent> getLocalEvents() {
+        LocalEventStorage storage = mLocalEventStorage;
+        return storage != null ? storage.getEvents() : mLocalEvents;
+    }
+
+    public List<CalendarEvent> getLocalEventsForDay(IslamicDate day){
+        return getLocalIndex(day.getYear(), day.getMonth()).getEventsForDay(day);
+    }
+
+    public LocalEventStorage getLocalEventStorage() {
+        return mLocalEventStorage;
+    }
+
+    /**
+     * Keeps the local events in the given storage instead of in memory. While a storage is set,
+     * the events added before are not shown, and events are removed and updated by value instead
+     * of by identity.
+     *
+     * @param localEventStorage The storage, or null to go back to the events kept in memory
+     */
+    public CalendarEngine setLocalEventStorage(LocalEventStorage localEventStorage) {
+        mLocalEventStorage = localEventStorage;
+        mMonthCache.clear();
+        mHolidayCalendar = null;
+        return this;
+    }
+
+    /**
+     * Adds an event and drops the cached months showing it.
+     */
+    public void addLocalEvent(CalendarEvent event) {
+        LocalEventStorage storage = mLocalEventStorage;
+        if (storage != null) {
+            storage.add(event);
+        } else {
+            synchronized (mLocalEventsLock) {
+                synchronized (mLocalIndex) {
+                    mLocalEvents.add(event);
+                }
+            }
+        }
+        invalidateMonthsOf(event, null);
+    }
+
+    /**
+     * Adds many events at once: they are indexed together and the month cache is cleared once at
+     * the end. Can be called from a background thread; the new events show up all at once, and
+     * months keep being built from the previous ones until they are indexed.
+     */
+    public void addLocalEvents(Collection<CalendarEvent> events) {
+        LocalEventStorage storage = mLocalEventStorage;
+        if (storage != null) {
+            storage.addAll(events);
+        } else {
+            synchronized (mLocalEventsLock) {
+                List<CalendarEvent> localEvents = new ArrayList<>(mLocalEvents.size() + events.size());
+                localEvents.addAll(mLocalEvents);
+                localEvents.addAll(events);
+                EventIndex localIndex = new EventIndex(localEvents);
+                mLocalEvents = localEvents;
+                mLocalIndex = localIndex;
+            }
+        }
+        mMonthCache.clear();
+        mHolidayCalendar = null;
+    }
+
+    /**
+     * Replaces all the local events, the same way {@link #addLocalEvents(Collection)} adds them.
+     */
+    public void replaceLocalEvents(Collection<CalendarEvent> events) {
+        LocalEventStorage storage = mLocalEventStorage;
+        if (storage != null) {
+            storage.replaceAll(events);
+        } else {
+            List<CalendarEvent> localEvents = new ArrayList<>(events);
+            EventIndex localIndex = new EventIndex(localEvents);
+            synchronized (mLocalEventsLock) {
+                mLocalEvents = localEvents;
+                mLocalIndex = localIndex;
+            }
+        }
+        mMonthCache.clear();
+        mHolidayCalendar = null;
+    }
+
+    /**
+     * Removes the event, compared by identity, and drops the cached months it was showing in.
+     *
+     * @return Whether the event was one of the local events
+     */
+    public boolean removeLocalEvent(CalendarEvent event) {
+        LocalEventStorage storage = mLocalEventStorage;
+        if (storage != null) {
+            if (!storage.remove(event)) {
+                return false;
+            }
+        } else {
+            synchronized (mLocalEventsLock) {
+                synchronized (mLocalIndex) {
+                    int position = indexOfLocalEvent(event);
+                    if (position == -1) {
+                        return false;
+                    }
+                    mLocalEvents.remove(position);
+                    mLocalIndex.invalidate();
+                }
+            }
+        }
+        invalidateMonthsOf(event, null);
+        return true;
+    }
+
+    /**
+     * Replaces an event, compared by identity, keeping its place among the local events. The
+     * cached months of both the old and the new event are dropped.
+     *
+     * @return Whether the old event was one of the local events
+     */
+    public boolean updateLocalEvent(CalendarEvent oldEvent, CalendarEvent newEvent) {
+        LocalEventStorage storage = mLocalEventStorage;
+        if (storage != null) {
+            if (!storage.update(oldEvent, newEvent)) {
+                return false;
+            }
+        } else {
+            synchronized (mLocalEventsLock) {
+                synchronized (mLocalIndex) {
+                    int position = indexOfLocalEvent(oldEvent);
+                    if (position == -1) {
+                        return false;
+                    }
+                    mLocalEvents.set(position, newEvent);
+                    mLocalIndex.invalidate();
+                }
+            }
+        }
+        invalidateMonthsOf(oldEvent, newEvent);
+        return true;
+    }
+
+    private int indexOfLocalEvent(CalendarEvent event) {
+        for (int i = 0; i < mLocalEvents.size(); i++) {
+            if (mLocalEvents.get(i) == event) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void invalidateMonthsOf(CalendarEvent event, CalendarEvent otherEvent) {
+        mHolidayCalendar = null;
+        // A month being built may hold the event without being cached yet
+        mMonthCache.invalidateBuilds();
+        MonthBuilder builder = newMonthBuilder(mLocalIndex);
+        for (MonthCache.Key key : mMonthCache.getKeys()) {
+            if (builder.containsEvent(key.getYear(), key.getMonth(), event)
+                    || otherEvent != null && builder.containsEvent(key.getYear(), key.getMonth(), otherEvent)) {
+                mMonthCache.invalidateMonth(key.getYear(), key.getMonth());
+            }
+        }
+    }
+}
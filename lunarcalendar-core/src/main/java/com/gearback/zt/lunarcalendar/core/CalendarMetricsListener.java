@@ -0,0 +1,42 @@
+package com.gearback.zt.lunarcalendar.core;
+
+/**
+ * Receives timings and counters from the calendar, e.g. to report them to an analytics backend.
+ * Methods are called on the thread doing the work, which for month builds is usually the
+ * background month loader, so implementations should be quick and thread safe. Durations are in
+ * nanoseconds.
+ */
+public interface CalendarMetricsListener {
+    /**
+     * The official events were read and indexed, the first time they were needed.
+     */
+    void onEventsCatalogLoaded(int eventCount, long durationNanos);
+
+    /**
+     * The days of a month were looked up in the month cache.
+     */
+    void onMonthCacheLookup(int year, int month, boolean hit);
+
+    /**
+     * The days of a month were built after a cache miss.
+     *
+     * @param eventCount The official and local events falling on the month
+     */
+    void onMonthBuilt(int year, int month, int eventCount, long durationNanos);
+
+    /**
+     * The days of a month were set on a month page.
+     */
+    void onMonthPageBound(int offset, long durationNanos);
+
+    /**
+     * A day cell of a month page laid out with a view per day was bound, fully or only for a
+     * change of the selected day. Not called for month pages drawn on a canvas.
+     */
+    void onDayCellBound();
+
+    /**
+     * A frame was drawn after the pager moved to another month, timed from the page change.
+     */
+    void onFirstFrameAfterSwipe(int offset, long durationNanos);
+}
@@ -0,0 +1,225 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.models.AbstractDate;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+
+/**
+ * Lookup table over a list of {@link CalendarEvent}s, keyed by a packed (calendar, year, month, day).
+ * Recurring events (year == -1) are stored under a wildcard year, so finding the events of a day
+ * probes at most six buckets instead of scanning and converting every event of the list. Each
+ * bucket also keeps the {@link EventTypes} mask of its events, for looking up the types of a day
+ * without listing its events.
+ *
+ * The index follows the backing list: items appended to it are picked up on the next lookup and
+ * a list that shrank is re-indexed from scratch.
+ */
+public class EventIndex {
+    public static final int CALENDAR_ISLAMIC = 0;
+    public static final int CALENDAR_CIVIL = 1;
+    public static final int CALENDAR_PERSIAN = 2;
+
+    private static final int ANY_YEAR = -1;
+
+    private final List<CalendarEvent> mEvents;
+    private final Map<Integer, Bucket> mBuckets;
+    private int mIndexedCount;
+    private final Bucket[] mFound = new Bucket[6];
+
+    public EventIndex(List<CalendarEvent> events) {
+        mEvents = events;
+        // Most events fall on a day of their own, each with one or two dates
+        mBuckets = new HashMap<>(Math.max(16, events.size() * 2));
+        sync();
+    }
+
+    /**
+     * Packs a date of the given calendar into a single int key. Year -1 is the wildcard used by
+     * recurring events.
+     */
+    public static int pack(int calendar, int year, int month, int day) {
+        return (((year + 1) << 2 | calendar) << 4 | month) << 5 | day;
+    }
+
+    public List<CalendarEvent> getEvents() {
+        return mEvents;
+    }
+
+    /**
+     * Drops everything and indexes the backing list again. Needed only when items of the list
+     * were replaced in place.
+     */
+    public synchronized void invalidate() {
+        mBuckets.clear();
+        mIndexedCount = 0;
+        sync();
+    }
+
+    private synchronized void sync() {
+        if (mEvents.size() < mIndexedCount) {
+            mBuckets.clear();
+            mIndexedCount = 0;
+        }
+        for (int i = mIndexedCount; i < mEvents.size(); i++) {
+            CalendarEvent event = mEvents.get(i);
+            int mask = EventTypes.getMask(event);
+            if (event.getIslamicDate() != null) {
+                put(CALENDAR_ISLAMIC, event.getIslamicDate(), i, mask);
+            }
+            if (event.getCivilDate() != null) {
+                put(CALENDAR_CIVIL, event.getCivilDate(), i, mask);
+            }
+            if (event.getPersianDate() != null) {
+                put(CALENDAR_PERSIAN, event.getPersianDate(), i, mask);
+            }
+        }
+        mIndexedCount = mEvents.size();
+    }
+
+    private void put(int calendar, AbstractDate date, int position, int mask) {
+        int key = pack(calendar, date.getYear(), date.getMonth(), date.getDayOfMonth());
+        Bucket bucket = mBuckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket();
+            mBuckets.put(key, bucket);
+        }
+        bucket.add(position);
+        bucket.mMask |= mask;
+    }
+
+    public List<CalendarEvent> getEventsForDay(IslamicDate day) {
+        return getEventsForDay(day, DateConverter.islamicToCivil(day), DateConverter.islamicToPersian(day));
+    }
+
+    /**
+     * Same as {@link #getEventsForDay(IslamicDate)} for callers that already have the civil and
+     * persian equivalents of the day at hand. Events keep the order of the backing list.
+     */
+    public List<CalendarEvent> getEventsForDay(IslamicDate islamic, CivilDate civil, PersianDate persian) {
+        List<CalendarEvent> result = new ArrayList<>();
+        collect(islamic, civil, persian, result);
+        return result;
+    }
+
+    public synchronized void collect(IslamicDate islamic, CivilDate civil, PersianDate persian,
+                                     List<CalendarEvent> out) {
+        sync();
+        Bucket[] found = mFound;
+        int count = probe(CALENDAR_ISLAMIC, islamic, found, 0);
+        count = probe(CALENDAR_CIVIL, civil, found, count);
+        count = probe(CALENDAR_PERSIAN, persian, found, count);
+        if (count == 0) {
+            return;
+        }
+        if (count == 1) {
+            for (int i = 0; i < found[0].mSize; i++) {
+                out.add(mEvents.get(found[0].mPositions[i]));
+            }
+            return;
+        }
+
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += found[i].mSize;
+        }
+        int[] positions = new int[total];
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(found[i].mPositions, 0, positions, index, found[i].mSize);
+            index += found[i].mSize;
+        }
+        Arrays.sort(positions);
+        for (int position : positions) {
+            out.add(mEvents.get(position));
+        }
+    }
+
+    /**
+     * Tells whether the day has any event, without building the result list.
+     */
+    public synchronized boolean hasEvents(IslamicDate islamic, CivilDate civil, PersianDate persian) {
+        sync();
+        return contains(CALENDAR_ISLAMIC, islamic)
+                || contains(CALENDAR_CIVIL, civil)
+                || contains(CALENDAR_PERSIAN, persian);
+    }
+
+    /**
+     * The {@link EventTypes} masks of the events of the day, ORed together. Zero when the day has
+     * no events.
+     */
+    public synchronized int getDayMask(IslamicDate islamic, CivilDate civil, PersianDate persian) {
+        sync();
+        return getMask(CALENDAR_ISLAMIC, islamic)
+                | getMask(CALENDAR_CIVIL, civil)
+                | getMask(CALENDAR_PERSIAN, persian);
+    }
+
+    /**
+     * Counts the events of the day, without building the result list.
+     */
+    public synchronized int countEvents(IslamicDate islamic, CivilDate civil, PersianDate persian) {
+        sync();
+        Bucket[] found = mFound;
+        int count = probe(CALENDAR_ISLAMIC, islamic, found, 0);
+        count = probe(CALENDAR_CIVIL, civil, found, count);
+        count = probe(CALENDAR_PERSIAN, persian, found, count);
+        int events = 0;
+        for (int i = 0; i < count; i++) {
+            events += found[i].mSize;
+        }
+        return events;
+    }
+
+    private int getMask(int calendar, AbstractDate date) {
+        int mask = 0;
+        Bucket bucket = mBuckets.get(pack(calendar, ANY_YEAR, date.getMonth(), date.getDayOfMonth()));
+        if (bucket != null) {
+            mask |= bucket.mMask;
+        }
+        bucket = mBuckets.get(pack(calendar, date.getYear(), date.getMonth(), date.getDayOfMonth()));
+        if (bucket != null) {
+            mask |= bucket.mMask;
+        }
+        return mask;
+    }
+
+    private boolean contains(int calendar, AbstractDate date) {
+        return mBuckets.containsKey(pack(calendar, ANY_YEAR, date.getMonth(), date.getDayOfMonth()))
+                || mBuckets.containsKey(pack(calendar, date.getYear(), date.getMonth(), date.getDayOfMonth()));
+    }
+
+    private int probe(int calendar, AbstractDate date, Bucket[] found, int count) {
+        Bucket bucket = mBuckets.get(pack(calendar, ANY_YEAR, date.getMonth(), date.getDayOfMonth()));
+        if (bucket != null) {
+            found[count++] = bucket;
+        }
+        bucket = mBuckets.get(pack(calendar, date.getYear(), date.getMonth(), date.getDayOfMonth()));
+        if (bucket != null) {
+            found[count++] = bucket;
+        }
+        return count;
+    }
+
+    private static class Bucket {
+        int[] mPositions = new int[2];
+        int mSize;
+        int mMask;
+
+        void add(int position) {
+            if (mSize == mPositions.length) {
+                mPositions = Arrays.copyOf(mPositions, mSize * 2);
+            }
+            mPositions[mSize++] = position;
+        }
+    }
+}
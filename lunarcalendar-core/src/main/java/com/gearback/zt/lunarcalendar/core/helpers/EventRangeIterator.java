@@ -0,0 +1,143 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.gearback.zt.calendarcore.core.exceptions.DayOutOfRangeException;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+/**
+ * Walks the official and local events of a range of days, in date order, one day at a time and
+ * only as far as the caller reads. Like {@link MonthBuilder}, only the first day is converted to
+ * civil and persian; the following ones are reached by stepping those dates forward.
+ *
+ * Events of a day come in the order of {@link CalendarEngine#getAllEventsForDay}, and
+ * {@link #getDay()} tells the day of the last event returned.
+ */
+public class EventRangeIterator implements Iterator<CalendarEvent> {
+    private final CalendarEngine mCalendarEngine;
+    private final EventIndex mOfficialEvents;
+    private final int mEndYear;
+    private final int mEndMonth;
+    private final int mEndDay;
+    private final List<CalendarEvent> mDayEvents = new ArrayList<>();
+
+    private EventIndex mLocalEvents;
+    private IslamicDate mIslamicDate;
+    private CivilDate mCivilDate;
+    private PersianDate mPersianDate;
+    private int mMonthLength;
+    private IslamicDate mDay;
+    private IslamicDate mLastDay;
+    private int mPosition;
+    private boolean mFinished;
+
+    /**
+     * @param from First day of the range
+     * @param to   Last day of the range, included
+     */
+    public EventRangeIterator(CalendarEngine calendarEngine, EventIndex officialEvents,
+                              IslamicDate from, IslamicDate to) {
+        mCalendarEngine = calendarEngine;
+        mOfficialEvents = officialEvents;
+        mEndYear = to.getYear();
+        mEndMonth = to.getMonth();
+        mEndDay = to.getDayOfMonth();
+
+        mIslamicDate = new IslamicDate(from.getYear(), from.getMonth(), from.getDayOfMonth());
+        mFinished = isAfterEnd(mIslamicDate);
+        if (!mFinished) {
+            mCivilDate = DateConverter.islamicToCivil(mIslamicDate);
+            mPersianDate = DateConverter.islamicToPersian(mIslamicDate);
+            startMonth();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (mPosition == mDayEvents.size()) {
+            if (mFinished) {
+                return false;
+            }
+            readDay();
+        }
+        return true;
+    }
+
+    @Override
+    public CalendarEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        mLastDay = mDay;
+        return mDayEvents.get(mPosition++);
+    }
+
+    /**
+     * @return The day of the event last returned by {@link #next()}
+     */
+    public IslamicDate getDay() {
+        return mLastDay;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void readDay() {
+        mDayEvents.clear();
+        mPosition = 0;
+        mDay = mIslamicDate;
+        mOfficialEvents.collect(mIslamicDate, mCivilDate, mPersianDate, mDayEvents);
+        mLocalEvents.collect(mIslamicDate, mCivilDate, mPersianDate, mDayEvents);
+
+        int year = mIslamicDate.getYear();
+        int month = mIslamicDate.getMonth();
+        int day = mIslamicDate.getDayOfMonth() + 1;
+        boolean newMonth = day > mMonthLength;
+        if (newMonth) {
+            day = 1;
+            month++;
+            if (month > 12) {
+                month = 1;
+                year++;
+            }
+        }
+        try {
+            mIslamicDate = new IslamicDate(year, month, day);
+            mFinished = isAfterEnd(mIslamicDate);
+            if (!mFinished) {
+                mCivilDate = MonthBuilder.nextCivilDay(mCivilDate);
+                mPersianDate = MonthBuilder.nextPersianDay(mPersianDate, mIslamicDate);
+                if (newMonth) {
+                    startMonth();
+                }
+            }
+        } catch (DayOutOfRangeException e) {
+            mFinished = true;
+        }
+    }
+
+    private void startMonth() {
+        mMonthLength = mCalendarEngine.getMonthLength(mIslamicDate.getYear(), mIslamicDate.getMonth());
+        mLocalEvents = mCalendarEngine.getLocalIndex(mIslamicDate.getYear(), mIslamicDate.getMonth());
+    }
+
+    private boolean isAfterEnd(IslamicDate date) {
+        if (date.getYear() != mEndYear) {
+            return date.getYear() > mEndYear;
+        }
+        if (date.getMonth() != mEndMonth) {
+            return date.getMonth() > mEndMonth;
+        }
+        return date.getDayOfMonth() > mEndDay;
+    }
+}
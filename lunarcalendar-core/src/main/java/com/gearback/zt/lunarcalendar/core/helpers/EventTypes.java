@@ -0,0 +1,74 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+
+/**
+ * The event types of the official catalog as bits, so the types of a day fit in one int and
+ * checking them against the highlight settings is a single AND. Types are mapped to their bit
+ * once, when the events are indexed.
+ */
+public final class EventTypes {
+    public static final int AFGHANISTAN = 1;
+    public static final int IRAN = 1 << 1;
+    public static final int ANCIENT_IRAN = 1 << 2;
+    public static final int ISLAMIC_IRAN = 1 << 3;
+    public static final int ISLAMIC_AFGHANISTAN = 1 << 4;
+    public static final int GREGORIAN = 1 << 5;
+    public static final int AD = 1 << 6;
+
+    public static final int COUNT = 7;
+    public static final int ALL = (1 << COUNT) - 1;
+
+    /**
+     * Set in day masks when any of the events is a holiday.
+     */
+    public static final int HOLIDAY = 1 << 29;
+    /**
+     * Set in day masks when the day has any event, whatever its type.
+     */
+    public static final int ANY_EVENT = 1 << 30;
+
+    private static final Map<String, Integer> TYPES = new HashMap<>();
+
+    static {
+        TYPES.put("Afghanistan", AFGHANISTAN);
+        TYPES.put("Iran", IRAN);
+        TYPES.put("Ancient Iran", ANCIENT_IRAN);
+        TYPES.put("Islamic Iran", ISLAMIC_IRAN);
+        TYPES.put("Islamic Afghanistan", ISLAMIC_AFGHANISTAN);
+        TYPES.put("Gregorian", GREGORIAN);
+        TYPES.put("Ad", AD);
+    }
+
+    private EventTypes() {
+    }
+
+    /**
+     * @return The bit of the type, or 0 for types that are not part of the catalog
+     */
+    public static int getType(String type) {
+        Integer bit = type != null ? TYPES.get(type) : null;
+        return bit != null ? bit : 0;
+    }
+
+    /**
+     * The type bit of the event along with {@link #ANY_EVENT} and, for holidays, {@link #HOLIDAY}.
+     */
+    public static int getMask(CalendarEvent event) {
+        int mask = ANY_EVENT | getType(event.getType());
+        if (event.isHoliday()) {
+            mask |= HOLIDAY;
+        }
+        return mask;
+    }
+
+    /**
+     * @return The position of a type bit, from 0 to {@link #COUNT} - 1
+     */
+    public static int indexOf(int type) {
+        return Integer.numberOfTrailingZeros(type);
+    }
+}
@@ -0,0 +1,108 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+
+/**
+ * Loader for the binary events catalog produced by the {@code compileEventsCatalog} Gradle task
+ * from {@code events.json}. The whole asset is read with one buffered read and decoded from memory.
+ *
+ * Layout, big endian:
+ * <pre>
+ * int    magic ("LCEV")
+ * short  version
+ * int    type count,  then each type as modified UTF-8 (DataOutput.writeUTF)
+ * int    text count,  then each title/description as modified UTF-8
+ * int    record count, then each record as 14 bytes:
+ *        byte calendar (0 lunar, 1 persian, 2 gregorian), byte month, byte day,
+ *        byte flags (1 holiday, 2 obit), short type, int title, int description
+ * </pre>
+ * Must be kept in sync with the task in {@code lunarcalendar/build.gradle}.
+ */
+public class EventsCatalogReader {
+    public static final String ASSET_NAME = "events.bin";
+
+    private static final int MAGIC = 0x4C434556;
+    private static final int VERSION = 1;
+
+    private static final int LUNAR = 0;
+    private static final int PERSIAN = 1;
+
+    private static final int FLAG_HOLIDAY = 1;
+    private static final int FLAG_OBIT = 2;
+
+    private EventsCatalogReader() {
+    }
+
+    public static List<CalendarEvent> read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFully(is)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an events catalog");
+        }
+        int version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported events catalog version " + version);
+        }
+
+        String[] types = readStrings(in);
+        String[] texts = readStrings(in);
+
+        int count = in.readInt();
+        List<CalendarEvent> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int calendar = in.readByte();
+            int month = in.readByte();
+            int day = in.readByte();
+            int flags = in.readByte();
+            String type = types[in.readShort()];
+            String title = texts[in.readInt()];
+            String desc = texts[in.readInt()];
+            boolean holiday = (flags & FLAG_HOLIDAY) != 0;
+            boolean obit = (flags & FLAG_OBIT) != 0;
+
+            if (calendar == LUNAR) {
+                result.add(new CalendarEvent(null, null, new IslamicDate(-1, month, day), title, desc, holiday, obit, type));
+            } else if (calendar == PERSIAN) {
+                result.add(new CalendarEvent(new PersianDate(-1, month, day), null, null, title, desc, holiday, obit, type));
+            } else {
+                result.add(new CalendarEvent(null, new CivilDate(-1, month, day), null, title, desc, holiday, obit, type));
+            }
+        }
+        return result;
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        return strings;
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        try {
+            byte[] buffer = new byte[Math.max(is.available() + 1, 8192)];
+            int length = 0;
+            int read;
+            while ((read = is.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            return buffer;
+        } finally {
+            is.close();
+        }
+    }
+}
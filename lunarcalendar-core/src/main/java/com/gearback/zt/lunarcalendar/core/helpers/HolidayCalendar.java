@@ -0,0 +1,218 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+/**
+ * The holidays of each Islamic year as a bitset with one bit per day: Fridays, official holidays
+ * and, optionally, local holidays. A year is built the first time it is asked for, along with the
+ * number of holidays before each 64 day word, so checking a day, counting the holidays between
+ * two days and stepping over business days take a few bit operations per year covered.
+ *
+ * Instances are dropped by the {@link CalendarEngine} when events or month lengths change.
+ */
+public class HolidayCalendar {
+    private static final int FRIDAY = 6;
+
+    private final CalendarEngine mCalendarEngine;
+    private final EventIndex mOfficialEvents;
+    private final boolean mLocalHolidays;
+    private final Map<Integer, Year> mYears = new HashMap<>();
+
+    public HolidayCalendar(CalendarEngine calendarEngine, EventIndex officialEvents, boolean localHolidays) {
+        mCalendarEngine = calendarEngine;
+        mOfficialEvents = officialEvents;
+        mLocalHolidays = localHolidays;
+    }
+
+    private static class Year {
+        final int mLength;
+        final long[] mHolidays;
+        final long[] mBusinessDays;
+        final int[] mHolidaysBefore;
+
+        Year(int length) {
+            mLength = length;
+            int words = (length + 63) >>> 6;
+            mHolidays = new long[words];
+            mBusinessDays = new long[words];
+            mHolidaysBefore = new int[words + 1];
+        }
+
+        void setHoliday(int day) {
+            mHolidays[day >>> 6] |= 1L << day;
+        }
+
+        void finish() {
+            for (int w = 0; w < mHolidays.length; w++) {
+                int daysInWord = Math.min(64, mLength - (w << 6));
+                long days = daysInWord == 64 ? -1L : (1L << daysInWord) - 1;
+                mBusinessDays[w] = ~mHolidays[w] & days;
+                mHolidaysBefore[w + 1] = mHolidaysBefore[w] + Long.bitCount(mHolidays[w]);
+            }
+        }
+
+        boolean isHoliday(int day) {
+            return (mHolidays[day >>> 6] & 1L << day) != 0;
+        }
+
+        /**
+         * @return The number of holidays among the days before the given one
+         */
+        int countHolidays(int day) {
+            int word = day >>> 6;
+            int count = mHolidaysBefore[word];
+            int bit = day & 63;
+            if (bit != 0) {
+                count += Long.bitCount(mHolidays[word] & ((1L << bit) - 1));
+            }
+            return count;
+        }
+
+        int countBusinessDays(int day) {
+            return day - countHolidays(day);
+        }
+
+        /**
+         * @return The day of the business day of the given rank, counting from 0
+         */
+        int selectBusinessDay(int rank) {
+            for (int w = 0; w < mBusinessDays.length; w++) {
+                long days = mBusinessDays[w];
+                int count = Long.bitCount(days);
+                if (rank < count) {
+                    for (int i = 0; i < rank; i++) {
+                        days &= days - 1;
+                    }
+                    return (w << 6) + Long.numberOfTrailingZeros(days);
+                }
+                rank -= count;
+            }
+            throw new IllegalArgumentException("The year has fewer business days");
+        }
+    }
+
+    private synchronized Year getYear(int year) {
+        Year holidays = mYears.get(year);
+        if (holidays == null) {
+            holidays = build(year);
+            mYears.put(year, holidays);
+        }
+        return holidays;
+    }
+
+    private Year build(int year) {
+        IslamicMonthTable monthTable = mCalendarEngine.getMonthTable();
+        Year holidays = new Year(monthTable.getYearLength(year));
+
+        IslamicDate islamicDate = new IslamicDate(year, 1, 1);
+        CivilDate civilDate = DateConverter.islamicToCivil(islamicDate);
+        PersianDate persianDate = DateConverter.islamicToPersian(islamicDate);
+        int dayOfWeek = civilDate.getDayOfWeek() % 7;
+        int day = 0;
+        for (int month = 1; month <= 12; month++) {
+            EventIndex localEvents = mLocalHolidays ? mCalendarEngine.getLocalIndex(year, month) : null;
+            int monthLength = monthTable.getMonthLength(year, month);
+            for (int i = 1; i <= monthLength; i++) {
+                if (day > 0) {
+                    islamicDate = new IslamicDate(year, month, i);
+                    civilDate = MonthBuilder.nextCivilDay(civilDate);
+                    persianDate = MonthBuilder.nextPersianDay(persianDate, islamicDate);
+                }
+                int mask = mOfficialEvents.getDayMask(islamicDate, civilDate, persianDate);
+                if (localEvents != null) {
+                    mask |= localEvents.getDayMask(islamicDate, civilDate, persianDate);
+                }
+                if (dayOfWeek == FRIDAY || (mask & EventTypes.HOLIDAY) != 0) {
+                    holidays.setHoliday(day);
+                }
+                day++;
+                dayOfWeek = (dayOfWeek + 1) % 7;
+            }
+        }
+        holidays.finish();
+        return holidays;
+    }
+
+    private int getDayOfYear(IslamicDate date) {
+        IslamicMonthTable monthTable = mCalendarEngine.getMonthTable();
+        return monthTable.getMonthStart(date.getYear(), date.getMonth())
+                - monthTable.getYearStart(date.getYear())
+                + date.getDayOfMonth() - 1;
+    }
+
+    private IslamicDate getDate(int year, int dayOfYear) {
+        IslamicMonthTable monthTable = mCalendarEngine.getMonthTable();
+        int month = 1;
+        int monthLength = monthTable.getMonthLength(year, month);
+        while (dayOfYear >= monthLength && month < 12) {
+            dayOfYear -= monthLength;
+            month++;
+            monthLength = monthTable.getMonthLength(year, month);
+        }
+        return new IslamicDate(year, month, dayOfYear + 1);
+    }
+
+    public boolean isHoliday(IslamicDate date) {
+        return getYear(date.getYear()).isHoliday(getDayOfYear(date));
+    }
+
+    /**
+     * @return The number of holidays from one day to another, both included, or 0 when the first
+     * day comes after the second
+     */
+    public int countHolidays(IslamicDate from, IslamicDate to) {
+        int count = 0;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            Year holidays = getYear(year);
+            int first = year == from.getYear() ? getDayOfYear(from) : 0;
+            int end = year == to.getYear() ? getDayOfYear(to) + 1 : holidays.mLength;
+            if (first < end) {
+                count += holidays.countHolidays(end) - holidays.countHolidays(first);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The day that many business days after the given one, or before it for a negative
+     * number of days. The given day itself is not counted, holiday or not.
+     */
+    public IslamicDate addBusinessDays(IslamicDate date, int days) {
+        if (days == 0) {
+            return date;
+        }
+        int year = date.getYear();
+        int day = getDayOfYear(date);
+        Year holidays = getYear(year);
+        if (days > 0) {
+            int remaining = days;
+            int after = holidays.countBusinessDays(holidays.mLength) - holidays.countBusinessDays(day + 1);
+            while (remaining > after) {
+                remaining -= after;
+                year++;
+                holidays = getYear(year);
+                day = -1;
+                after = holidays.countBusinessDays(holidays.mLength);
+            }
+            int rank = holidays.countBusinessDays(day + 1) + remaining - 1;
+            return getDate(year, holidays.selectBusinessDay(rank));
+        } else {
+            int remaining = -days;
+            int before = holidays.countBusinessDays(day);
+            while (remaining > before) {
+                remaining -= before;
+                year--;
+                holidays = getYear(year);
+                before = holidays.countBusinessDays(holidays.mLength);
+            }
+            return getDate(year, holidays.selectBusinessDay(before - remaining));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+
+/**
+ * Lengths of the Islamic months over a range of years, kept as one 12 bit mask per year with a
+ * bit set for every 30 day month, along with the day number each year starts on. Month lengths
+ * and month starts are then looked up without allocating or converting dates.
+ *
+ * A table can hold any month lengths, e.g. those of an observed or Umm al-Qura calendar. Years
+ * outside its range fall back to the arithmetic calendar: months alternating between 30 and 29
+ * days, with a 30th day added to the last month of leap years.
+ *
+ * Day numbers count days from the first day of the first year of the table, which is day 0.
+ */
+public class IslamicMonthTable {
+    public static final int DEFAULT_FIRST_YEAR = 1300;
+    public static final int DEFAULT_LAST_YEAR = 1600;
+
+    private static final int ARITHMETIC_MONTHS = 0x555;
+    private static final int LAST_MONTH = 1 << 11;
+    private static final int MONTHS_MASK = 0xFFF;
+
+    private static IslamicMonthTable sArithmetic;
+
+    private final int mFirstYear;
+    private final short[] mMonths;
+    private final int[] mYearStarts;
+
+    /**
+     * @param firstYear The year of the first mask
+     * @param months    One mask per year, bit {@code month - 1} set when the month has 30 days
+     */
+    public IslamicMonthTable(int firstYear, short[] months) {
+        if (months.length == 0) {
+            throw new IllegalArgumentException("The table needs at least one year");
+        }
+        mFirstYear = firstYear;
+        mMonths = months.clone();
+        mYearStarts = new int[months.length];
+        int start = 0;
+        for (int i = 0; i < months.length; i++) {
+            mYearStarts[i] = start;
+            start += countDays(months[i]);
+        }
+    }
+
+    /**
+     * The arithmetic calendar over {@link #DEFAULT_FIRST_YEAR} to {@link #DEFAULT_LAST_YEAR}, the
+     * month lengths the calendar has always used.
+     */
+    public static synchronized IslamicMonthTable getArithmetic() {
+        if (sArithmetic == null) {
+            sArithmetic = arithmetic(DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR);
+        }
+        return sArithmetic;
+    }
+
+    public static IslamicMonthTable arithmetic(int firstYear, int lastYear) {
+        short[] months = new short[lastYear - firstYear + 1];
+        for (int i = 0; i < months.length; i++) {
+            months[i] = (short) getArithmeticMonths(firstYear + i);
+        }
+        return new IslamicMonthTable(firstYear, months);
+    }
+
+    private static int getArithmeticMonths(int year) {
+        return new IslamicDate(year, 12, 1).isLeapYear()
+                ? ARITHMETIC_MONTHS | LAST_MONTH
+                : ARITHMETIC_MONTHS;
+    }
+
+    private static int countDays(int months) {
+        return 12 * 29 + Integer.bitCount(months & MONTHS_MASK);
+    }
+
+    public int getFirstYear() {
+        return mFirstYear;
+    }
+
+    public int getLastYear() {
+        return mFirstYear + mMonths.length - 1;
+    }
+
+    private int getMonths(int year) {
+        int index = year - mFirstYear;
+        if (index >= 0 && index < mMonths.length) {
+            return mMonths[index] & MONTHS_MASK;
+        }
+        return getArithmeticMonths(year);
+    }
+
+    public int getMonthLength(int year, int month) {
+        return 29 + (getMonths(year) >> (month - 1) & 1);
+    }
+
+    public int getYearLength(int year) {
+        return countDays(getMonths(year));
+    }
+
+    /**
+     * Years before or after the table are reached by adding up the lengths of the years in
+     * between, so they cost a little more the further they are.
+     */
+    public int getYearStart(int year) {
+        int index = year - mFirstYear;
+        if (index >= 0 && index < mMonths.length) {
+            return mYearStarts[index];
+        }
+        int start = 0;
+        if (index < 0) {
+            for (int y = year; y < mFirstYear; y++) {
+                start -= getYearLength(y);
+            }
+        } else {
+            for (int y = getLastYear(); y < year; y++) {
+                start += getYearLength(y);
+            }
+            start += mYearStarts[mMonths.length - 1];
+        }
+        return start;
+    }
+
+    /**
+     * @return The day number of the first day of the month
+     */
+    public int getMonthStart(int year, int month) {
+        int earlierMonths = getMonths(year) & ((1 << (month - 1)) - 1);
+        return getYearStart(year) + 29 * (month - 1) + Integer.bitCount(earlierMonths);
+    }
+
+    public int getDayNumber(int year, int month, int day) {
+        return getMonthStart(year, month) + day - 1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+
+/**
+ * Keeps local events outside of memory, handing out the events of one month at a time.
+ * Implementations must be safe to call from any thread.
+ */
+public interface LocalEventStorage {
+    /**
+     * Returns an index over the events that may fall in the given Islamic month.
+     */
+    EventIndex getMonthIndex(int year, int month);
+
+    /**
+     * Reads every stored event, in the order they were added.
+     */
+    List<CalendarEvent> getEvents();
+
+    void add(CalendarEvent event);
+
+    void addAll(Collection<CalendarEvent> events);
+
+    void replaceAll(Collection<CalendarEvent> events);
+
+    /**
+     * Removes one stored event equal to the given one.
+     *
+     * @return Whether such an event was stored
+     */
+    boolean remove(CalendarEvent event);
+
+    /**
+     * Replaces one stored event equal to the old one with the new one.
+     *
+     * @return Whether the old event was stored
+     */
+    boolean update(CalendarEvent oldEvent, CalendarEvent newEvent);
+}
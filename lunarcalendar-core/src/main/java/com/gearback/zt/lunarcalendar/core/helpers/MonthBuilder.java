@@ -0,0 +1,175 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.exceptions.DayOutOfRangeException;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+import com.gearback.zt.lunarcalendar.core.models.LunarDay;
+
+/**
+ * Builds the {@link Day} list of one lunar month in a single pass. Only the first day of the month
+ * is converted to civil and persian, the following days are reached by stepping those dates
+ * forward, and the holiday, event and today flags of a day are all computed from one lookup.
+ */
+public class MonthBuilder {
+    private static final int[] CIVIL_DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final CalendarEngine mCalendarEngine;
+    private final EventIndex mOfficialEvents;
+    private final EventIndex mLocalEvents;
+    private boolean mCountingEvents;
+    private int mEventCount;
+
+    public MonthBuilder(CalendarEngine calendarEngine, EventIndex officialEvents, EventIndex localEvents) {
+        mCalendarEngine = calendarEngine;
+        mOfficialEvents = officialEvents;
+        mLocalEvents = localEvents;
+    }
+
+    public List<Day> build(int year, int month, IslamicDate today) {
+        int monthLength = mCalendarEngine.getMonthLength(year, month);
+        List<Day> days = new ArrayList<>(monthLength);
+
+        IslamicDate islamicDate = new IslamicDate(year, month, 1);
+        CivilDate civilDate = DateConverter.islamicToCivil(islamicDate);
+        PersianDate persianDate = DateConverter.islamicToPersian(islamicDate);
+        int dayOfWeek = civilDate.getDayOfWeek() % 7;
+
+        mEventCount = 0;
+        boolean highlightLocal = mCalendarEngine.isHighlightingLocalEvents();
+        boolean highlightOfficial = mCalendarEngine.isHighlightingOfficialEvents();
+        int highlightedTypes = mCalendarEngine.getHighlightedTypes();
+
+        try {
+            for (int i = 1; i <= monthLength; i++) {
+                if (i > 1) {
+                    islamicDate = new IslamicDate(year, month, i);
+                    civilDate = nextCivilDay(civilDate);
+                    persianDate = nextPersianDay(persianDate, islamicDate);
+                }
+
+                LunarDay day = new LunarDay();
+                day.setNum(mCalendarEngine.formatNumber(i));
+                day.setDayOfWeek(dayOfWeek);
+
+                int officialMask = mOfficialEvents.getDayMask(islamicDate, civilDate, persianDate);
+                int localMask = mLocalEvents.getDayMask(islamicDate, civilDate, persianDate);
+                if (mCountingEvents) {
+                    mEventCount += mOfficialEvents.countEvents(islamicDate, civilDate, persianDate)
+                            + mLocalEvents.countEvents(islamicDate, civilDate, persianDate);
+                }
+                int types = officialMask & highlightedTypes;
+
+                day.setHoliday(dayOfWeek == 6 || ((officialMask | localMask) & EventTypes.HOLIDAY) != 0);
+                if (highlightLocal) {
+                    day.setLocalEvent(localMask != 0);
+                }
+                if (highlightOfficial) {
+                    day.setEvent(types != 0);
+                }
+                day.setEventTypes(types);
+                day.setIslamicDate(islamicDate);
+                day.setToday(today.getYear() == year
+                        && today.getMonth() == month
+                        && today.getDayOfMonth() == i);
+
+                days.add(day);
+                dayOfWeek++;
+                if (dayOfWeek == 7) {
+                    dayOfWeek = 0;
+                }
+            }
+        } catch (DayOutOfRangeException e) {
+        }
+
+        return days;
+    }
+
+    /**
+     * Makes {@link #build} count the events of the month, for {@link #getEventCount()}.
+     */
+    public void setCountingEvents(boolean countingEvents) {
+        mCountingEvents = countingEvents;
+    }
+
+    /**
+     * @return The number of official and local events on the days of the last month built, when
+     * counting events
+     */
+    public int getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * Tells whether the event falls on a day of the given month, matching the event dates the
+     * same way {@link #build} does.
+     */
+    public boolean containsEvent(int year, int month, CalendarEvent event) {
+        EventIndex index = new EventIndex(Collections.singletonList(event));
+        int monthLength = mCalendarEngine.getMonthLength(year, month);
+
+        IslamicDate islamicDate = new IslamicDate(year, month, 1);
+        CivilDate civilDate = DateConverter.islamicToCivil(islamicDate);
+        PersianDate persianDate = DateConverter.islamicToPersian(islamicDate);
+        for (int i = 1; i <= monthLength; i++) {
+            if (i > 1) {
+                islamicDate = new IslamicDate(year, month, i);
+                civilDate = nextCivilDay(civilDate);
+                persianDate = nextPersianDay(persianDate, islamicDate);
+            }
+            if (index.hasEvents(islamicDate, civilDate, persianDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int getCivilMonthLength(int year, int month) {
+        if (month == 2 && year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) {
+            return 29;
+        }
+        return CIVIL_DAYS_IN_MONTH[month - 1];
+    }
+
+    static CivilDate nextCivilDay(CivilDate date) {
+        int year = date.getYear();
+        int month = date.getMonth();
+        int day = date.getDayOfMonth() + 1;
+        if (day > getCivilMonthLength(year, month)) {
+            day = 1;
+            month++;
+            if (month > 12) {
+                month = 1;
+                year++;
+            }
+        }
+        return new CivilDate(year, month, day);
+    }
+
+    /**
+     * Persian months are 31 days for the first half of the year and 30 for the rest, except
+     * Esfand which is 29 or 30 days depending on the year. Only that last case is resolved by
+     * converting the islamic date again.
+     */
+    static PersianDate nextPersianDay(PersianDate date, IslamicDate islamicDate) {
+        int year = date.getYear();
+        int month = date.getMonth();
+        int day = date.getDayOfMonth() + 1;
+        if (month == 12 && day >= 30) {
+            return DateConverter.islamicToPersian(islamicDate);
+        }
+        if (day > (month <= 6 ? 31 : 30)) {
+            day = 1;
+            month++;
+        }
+        return new PersianDate(year, month, day);
+    }
+}
@@ -0,0 +1,212 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.models.Day;
+
+/**
+ * Bounded LRU cache of computed month models. A month is keyed by everything its days depend on
+ * besides the events: the highlight settings, the digit set and the lunar offset. Changes to the
+ * events are handled by invalidating the affected months.
+ *
+ * A month built while the cache was being invalidated is not stored, since it may have been
+ * computed from the old events; callers pass the {@link #getVersion() version} they started from.
+ */
+public class MonthCache {
+    public static final int DEFAULT_MAX_SIZE = 24;
+
+    public static class Key {
+        private final int mYear;
+        private final int mMonth;
+        private final int mHighlightMask;
+        private final char[] mDigits;
+        private final int mLunarOffset;
+
+        public Key(int year, int month, int highlightMask, char[] digits, int lunarOffset) {
+            mYear = year;
+            mMonth = month;
+            mHighlightMask = highlightMask;
+            mDigits = digits;
+            mLunarOffset = lunarOffset;
+        }
+
+        public int getYear() {
+            return mYear;
+        }
+
+        public int getMonth() {
+            return mMonth;
+        }
+
+        public int getHighlightMask() {
+            return mHighlightMask;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mYear == key.mYear
+                    && mMonth == key.mMonth
+                    && mHighlightMask == key.mHighlightMask
+                    && mDigits == key.mDigits
+                    && mLunarOffset == key.mLunarOffset;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mYear;
+            result = 31 * result + mMonth;
+            result = 31 * result + mHighlightMask;
+            result = 31 * result + System.identityHashCode(mDigits);
+            result = 31 * result + mLunarOffset;
+            return result;
+        }
+    }
+
+    private static class CachedMonth {
+        final List<Day> mDays;
+        final int mTodayYear;
+        final int mTodayMonth;
+        final int mTodayDay;
+
+        CachedMonth(List<Day> days, int todayYear, int todayMonth, int todayDay) {
+            mDays = days;
+            mTodayYear = todayYear;
+            mTodayMonth = todayMonth;
+            mTodayDay = todayDay;
+        }
+    }
+
+    private final LinkedHashMap<Key, CachedMonth> mEntries = new LinkedHashMap<Key, CachedMonth>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedMonth> eldest) {
+            return size() > mMaxSize;
+        }
+    };
+    private int mMaxSize;
+    private int mVersion;
+    private int mHits;
+    private int mMisses;
+
+    public MonthCache(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached days of the month, or null. A month that holds the day that was today
+     * when it was built, or the actual today, is only returned while today has not changed.
+     */
+    public synchronized List<Day> get(Key key, int todayYear, int todayMonth, int todayDay) {
+        CachedMonth entry = mEntries.get(key);
+        if (entry == null) {
+            mMisses++;
+            return null;
+        }
+        boolean todayChanged = entry.mTodayYear != todayYear
+                || entry.mTodayMonth != todayMonth
+                || entry.mTodayDay != todayDay;
+        if (todayChanged && (isMonth(key, entry.mTodayYear, entry.mTodayMonth) || isMonth(key, todayYear, todayMonth))) {
+            mEntries.remove(key);
+            mMisses++;
+            return null;
+        }
+        mHits++;
+        return entry.mDays;
+    }
+
+    /**
+     * Stores a month built by the caller, unless the cache was invalidated since {@code version}
+     * was read.
+     */
+    public synchronized void put(Key key, int todayYear, int todayMonth, int todayDay, List<Day> days, int version) {
+        if (version == mVersion) {
+            mEntries.put(key, new CachedMonth(days, todayYear, todayMonth, todayDay));
+        }
+    }
+
+    public synchronized int getVersion() {
+        return mVersion;
+    }
+
+    public synchronized List<Key> getKeys() {
+        return new ArrayList<>(mEntries.keySet());
+    }
+
+    public synchronized void invalidateMonth(int year, int month) {
+        mVersion++;
+        Iterator<Key> keys = mEntries.keySet().iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            if (key.mYear == year && key.mMonth == month) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Keeps the months being built now from being stored, without dropping any cached month. For
+     * changes that may affect months not cached yet.
+     */
+    public synchronized void invalidateBuilds() {
+        mVersion++;
+    }
+
+    /**
+     * Drops the months built with other highlight settings or digits than the given ones.
+     */
+    public synchronized void retainSettings(int highlightMask, char[] digits) {
+        Iterator<Key> keys = mEntries.keySet().iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            if (key.mHighlightMask != highlightMask || key.mDigits != digits) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        mVersion++;
+        mEntries.clear();
+    }
+
+    public synchronized int getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        mMaxSize = maxSize;
+        Iterator<Key> keys = mEntries.keySet().iterator();
+        while (mEntries.size() > mMaxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    public synchronized int getHitCount() {
+        return mHits;
+    }
+
+    public synchronized int getMissCount() {
+        return mMisses;
+    }
+
+    public synchronized void resetStats() {
+        mHits = 0;
+        mMisses = 0;
+    }
+
+    private static boolean isMonth(Key key, int year, int month) {
+        return key.mYear == year && key.mMonth == month;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+/**
+ * Formats numbers with a set of localized digits. Day numbers (0 to 31) are formatted once when
+ * the formatter is made, years are formatted once on first use, and anything else goes through a
+ * single char array.
+ */
+public class NumberFormatter {
+    private static final int MAX_DAY = 31;
+    private static final int MIN_YEAR = 1300;
+    private static final int MAX_YEAR = 2100;
+
+    private final char[] mDigits;
+    private final boolean mLatin;
+    private final String[] mDays = new String[MAX_DAY + 1];
+    private final String[] mYears = new String[MAX_YEAR - MIN_YEAR + 1];
+
+    /**
+     * @param digits The ten digits to use, from zero to nine
+     */
+    public NumberFormatter(char[] digits) {
+        mDigits = digits;
+        boolean latin = true;
+        for (int i = 0; i < 10; i++) {
+            latin &= digits[i] == '0' + i;
+        }
+        mLatin = latin;
+        for (int i = 0; i <= MAX_DAY; i++) {
+            mDays[i] = formatDigits(i);
+        }
+    }
+
+    public char[] getDigits() {
+        return mDigits;
+    }
+
+    public String format(int number) {
+        if (number >= 0 && number <= MAX_DAY) {
+            return mDays[number];
+        }
+        if (number >= MIN_YEAR && number <= MAX_YEAR) {
+            String year = mYears[number - MIN_YEAR];
+            if (year == null) {
+                year = formatDigits(number);
+                mYears[number - MIN_YEAR] = year;
+            }
+            return year;
+        }
+        return formatDigits(number);
+    }
+
+    /**
+     * Replaces every decimal digit of the text, whatever its script, with the digits of this
+     * formatter. With latin digits the text is returned untouched.
+     */
+    public String format(String number) {
+        if (mLatin) {
+            return number;
+        }
+        char[] chars = null;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            int digit = Character.digit(c, 10);
+            if (digit != -1 && mDigits[digit] != c) {
+                if (chars == null) {
+                    chars = number.toCharArray();
+                }
+                chars[i] = mDigits[digit];
+            }
+        }
+        return chars == null ? number : new String(chars);
+    }
+
+    private String formatDigits(int number) {
+        if (mLatin) {
+            return Integer.toString(number);
+        }
+        char[] chars = new char[11];
+        int position = chars.length;
+        long value = Math.abs((long) number);
+        do {
+            chars[--position] = mDigits[(int) (value % 10)];
+            value /= 10;
+        } while (value != 0);
+        if (number < 0) {
+            chars[--position] = '-';
+        }
+        return new String(chars, position, chars.length - position);
+    }
+}
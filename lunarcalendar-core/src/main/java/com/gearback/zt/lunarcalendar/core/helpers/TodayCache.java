@@ -0,0 +1,91 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+
+/**
+ * Keeps today's islamic date until the next local midnight, so asking for today does not read
+ * preferences, look up time zones and convert dates every time. Changes of time zone or lunar
+ * offset are reported through {@link #invalidate()} and the setters.
+ */
+public class TodayCache {
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private Clock mClock = SYSTEM_CLOCK;
+    private TimeZone mTimeZone;
+    private int mLunarOffset;
+
+    private IslamicDate mToday;
+    private long mDayStart;
+    private long mDayEnd;
+
+    /**
+     * @return A copy of today's date, callers are free to change it
+     */
+    public synchronized IslamicDate getToday() {
+        long now = mClock.currentTimeMillis();
+        if (mToday == null || now < mDayStart || now >= mDayEnd) {
+            compute(now);
+        }
+        return mToday.clone();
+    }
+
+    private void compute(long now) {
+        Calendar calendar = Calendar.getInstance(mTimeZone != null ? mTimeZone : TimeZone.getDefault());
+        calendar.setTimeInMillis(now);
+        mToday = DateConverter.civilToIslamic(new CivilDate(calendar), mLunarOffset);
+
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        mDayStart = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        mDayEnd = calendar.getTimeInMillis();
+    }
+
+    public synchronized void invalidate() {
+        mToday = null;
+    }
+
+    public synchronized Clock getClock() {
+        return mClock;
+    }
+
+    public synchronized void setClock(Clock clock) {
+        mClock = clock != null ? clock : SYSTEM_CLOCK;
+        mToday = null;
+    }
+
+    /**
+     * @param timeZone Time zone today is computed in, or null for the device one
+     */
+    public synchronized void setTimeZone(TimeZone timeZone) {
+        mTimeZone = timeZone;
+        mToday = null;
+    }
+
+    public synchronized int getLunarOffset() {
+        return mLunarOffset;
+    }
+
+    public synchronized void setLunarOffset(int lunarOffset) {
+        if (mLunarOffset != lunarOffset) {
+            mLunarOffset = lunarOffset;
+            mToday = null;
+        }
+    }
+}
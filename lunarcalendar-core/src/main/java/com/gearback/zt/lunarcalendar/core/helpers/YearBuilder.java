@@ -0,0 +1,88 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import com.gearback.zt.calendarcore.core.exceptions.DayOutOfRangeException;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+import com.gearback.zt.lunarcalendar.core.models.LunarYear;
+
+/**
+ * Builds a {@link LunarYear} in a single pass over its days, the way {@link MonthBuilder} builds a
+ * month: the first day is converted to civil and persian once, then every day is stepped to and
+ * flagged from one lookup in each event index.
+ */
+public class YearBuilder {
+    private final CalendarEngine mCalendarEngine;
+    private final EventIndex mOfficialEvents;
+
+    public YearBuilder(CalendarEngine calendarEngine, EventIndex officialEvents) {
+        mCalendarEngine = calendarEngine;
+        mOfficialEvents = officialEvents;
+    }
+
+    public LunarYear build(int year, IslamicDate today) {
+        IslamicMonthTable monthTable = mCalendarEngine.getMonthTable();
+        int[] monthStarts = new int[13];
+        for (int month = 1; month <= 12; month++) {
+            monthStarts[month] = monthStarts[month - 1] + monthTable.getMonthLength(year, month);
+        }
+
+        IslamicDate islamicDate = new IslamicDate(year, 1, 1);
+        CivilDate civilDate = DateConverter.islamicToCivil(islamicDate);
+        PersianDate persianDate = DateConverter.islamicToPersian(islamicDate);
+        int dayOfWeek = civilDate.getDayOfWeek() % 7;
+        LunarYear lunarYear = new LunarYear(year, dayOfWeek, monthStarts);
+
+        boolean highlightLocal = mCalendarEngine.isHighlightingLocalEvents();
+        boolean highlightOfficial = mCalendarEngine.isHighlightingOfficialEvents();
+        int highlightedTypes = mCalendarEngine.getHighlightedTypes();
+        int todayOfYear = today.getYear() == year
+                ? lunarYear.getDayOfYear(today.getMonth(), today.getDayOfMonth())
+                : -1;
+
+        try {
+            int day = 0;
+            for (int month = 1; month <= 12; month++) {
+                EventIndex localEvents = mCalendarEngine.getLocalIndex(year, month);
+                for (int i = 1; i <= lunarYear.getMonthLength(month); i++) {
+                    if (day > 0) {
+                        islamicDate = new IslamicDate(year, month, i);
+                        civilDate = MonthBuilder.nextCivilDay(civilDate);
+                        persianDate = MonthBuilder.nextPersianDay(persianDate, islamicDate);
+                    }
+
+                    int officialMask = mOfficialEvents.getDayMask(islamicDate, civilDate, persianDate);
+                    int localMask = localEvents.getDayMask(islamicDate, civilDate, persianDate);
+                    int types = officialMask & highlightedTypes;
+
+                    int flags = 0;
+                    if (dayOfWeek == 6 || ((officialMask | localMask) & EventTypes.HOLIDAY) != 0) {
+                        flags |= LunarYear.HOLIDAY;
+                    }
+                    if (highlightLocal && localMask != 0) {
+                        flags |= LunarYear.LOCAL_EVENT;
+                    }
+                    if (highlightOfficial && types != 0) {
+                        flags |= LunarYear.EVENT;
+                    }
+                    if (day == todayOfYear) {
+                        flags |= LunarYear.TODAY;
+                    }
+                    lunarYear.setFlags(day, flags);
+                    lunarYear.setEventTypes(day, types);
+
+                    day++;
+                    dayOfWeek++;
+                    if (dayOfWeek == 7) {
+                        dayOfWeek = 0;
+                    }
+                }
+            }
+        } catch (DayOutOfRangeException e) {
+        }
+
+        return lunarYear;
+    }
+}
@@ -0,0 +1,27 @@
+package com.gearback.zt.lunarcalendar.core.models;
+
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.lunarcalendar.core.helpers.EventTypes;
+
+/**
+ * A {@link Day} that also knows the types of its highlighted official events, as
+ * {@link EventTypes} bits, for coloring their marks by type.
+ */
+public class LunarDay extends Day {
+    private int mEventTypes;
+
+    public int getEventTypes() {
+        return mEventTypes;
+    }
+
+    public void setEventTypes(int eventTypes) {
+        mEventTypes = eventTypes;
+    }
+
+    /**
+     * @return The highlighted event types of the day, none for days not built by the calendar
+     */
+    public static int getEventTypes(Day day) {
+        return day instanceof LunarDay ? ((LunarDay) day).mEventTypes : 0;
+    }
+}
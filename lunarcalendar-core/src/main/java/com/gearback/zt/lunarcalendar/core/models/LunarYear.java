@@ -0,0 +1,88 @@
+package com.gearback.zt.lunarcalendar.core.models;
+
+import com.gearback.zt.lunarcalendar.core.helpers.EventTypes;
+
+/**
+ * The days of a whole Islamic year, for an overview of its twelve months. Instead of one
+ * {@link LunarDay} object per day, each day is a set of flags and its highlighted event types,
+ * indexed by day of year from 0.
+ */
+public class LunarYear {
+    public static final int HOLIDAY = 1;
+    public static final int EVENT = 1 << 1;
+    public static final int LOCAL_EVENT = 1 << 2;
+    public static final int TODAY = 1 << 3;
+
+    private final int mYear;
+    private final int mFirstDayOfWeek;
+    private final int[] mMonthStarts;
+    private final byte[] mFlags;
+    private final int[] mEventTypes;
+
+    /**
+     * @param firstDayOfWeek The day of week of the first day of the year
+     * @param monthStarts    The day of year each month starts on, followed by the year length
+     */
+    public LunarYear(int year, int firstDayOfWeek, int[] monthStarts) {
+        mYear = year;
+        mFirstDayOfWeek = firstDayOfWeek;
+        mMonthStarts = monthStarts;
+        mFlags = new byte[monthStarts[12]];
+        mEventTypes = new int[monthStarts[12]];
+    }
+
+    public int getYear() {
+        return mYear;
+    }
+
+    public int getLength() {
+        return mMonthStarts[12];
+    }
+
+    public int getMonthLength(int month) {
+        return mMonthStarts[month] - mMonthStarts[month - 1];
+    }
+
+    public int getDayOfYear(int month, int dayOfMonth) {
+        return mMonthStarts[month - 1] + dayOfMonth - 1;
+    }
+
+    public int getDayOfWeek(int dayOfYear) {
+        return (mFirstDayOfWeek + dayOfYear) % 7;
+    }
+
+    public int getFlags(int dayOfYear) {
+        return mFlags[dayOfYear];
+    }
+
+    public void setFlags(int dayOfYear, int flags) {
+        mFlags[dayOfYear] = (byte) flags;
+    }
+
+    public boolean isHoliday(int dayOfYear) {
+        return (mFlags[dayOfYear] & HOLIDAY) != 0;
+    }
+
+    public boolean isEvent(int dayOfYear) {
+        return (mFlags[dayOfYear] & EVENT) != 0;
+    }
+
+    public boolean isLocalEvent(int dayOfYear) {
+        return (mFlags[dayOfYear] & LOCAL_EVENT) != 0;
+    }
+
+    public boolean isToday(int dayOfYear) {
+        return (mFlags[dayOfYear] & TODAY) != 0;
+    }
+
+    /**
+     * @return The highlighted official event types of the day, as {@link EventTypes} bits
+     */
+    public int getEventTypes(int dayOfYear) {
+        return mEventTypes[dayOfYear];
+    }
+
+    public void setEventTypes(int dayOfYear, int eventTypes) {
+        mEventTypes[dayOfYear] = eventTypes;
+    }
+}
@@ -0,0 +1,150 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks {@link EventIndex} against the scan it replaced, which compared the dates of every event
+ * with the day using the {@code equals} of CalendarCore.
+ */
+public class EventIndexTest {
+    private static final int FIRST_YEAR = 1300;
+    private static final int LAST_YEAR = 1600;
+
+    private static List<CalendarEvent> scan(List<CalendarEvent> events, IslamicDate day) {
+        List<CalendarEvent> result = new ArrayList<>();
+        for (CalendarEvent calendarEvent : events) {
+            if (calendarEvent.getIslamicDate() != null) {
+                if (calendarEvent.getIslamicDate().equals(day)) {
+                    result.add(calendarEvent);
+                }
+            }
+            if (calendarEvent.getCivilDate() != null) {
+                if (calendarEvent.getCivilDate().equals(DateConverter.islamicToCivil(day))) {
+                    result.add(calendarEvent);
+                }
+            }
+            if (calendarEvent.getPersianDate() != null) {
+                if (calendarEvent.getPersianDate().equals(DateConverter.islamicToPersian(day))) {
+                    result.add(calendarEvent);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static IslamicDate randomDay(Random random) {
+        int year = FIRST_YEAR + random.nextInt(LAST_YEAR - FIRST_YEAR + 1);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(IslamicMonthTable.getArithmetic().getMonthLength(year, month));
+        return new IslamicDate(year, month, day);
+    }
+
+    /**
+     * Events on days of the tested years, in the three calendars, half of them recurring, with
+     * several events on some days and events with more than one date.
+     */
+    private static List<CalendarEvent> randomEvents(Random random, int count) {
+        List<CalendarEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IslamicDate day = randomDay(random);
+            boolean recurring = random.nextBoolean();
+            IslamicDate islamic = null;
+            CivilDate civil = null;
+            PersianDate persian = null;
+            switch (random.nextInt(4)) {
+                case 0:
+                    islamic = new IslamicDate(recurring ? -1 : day.getYear(), day.getMonth(), day.getDayOfMonth());
+                    break;
+                case 1:
+                    CivilDate c = DateConverter.islamicToCivil(day);
+                    civil = new CivilDate(recurring ? -1 : c.getYear(), c.getMonth(), c.getDayOfMonth());
+                    break;
+                case 2:
+                    PersianDate p = DateConverter.islamicToPersian(day);
+                    persian = new PersianDate(recurring ? -1 : p.getYear(), p.getMonth(), p.getDayOfMonth());
+                    break;
+                default:
+                    islamic = new IslamicDate(day.getYear(), day.getMonth(), day.getDayOfMonth());
+                    PersianDate q = DateConverter.islamicToPersian(day);
+                    persian = new PersianDate(-1, q.getMonth(), q.getDayOfMonth());
+                    break;
+            }
+            events.add(new CalendarEvent(persian, civil, islamic, "event " + i, "", false, false, null));
+            if (random.nextInt(8) == 0) {
+                // Another event on the same day, appended later in the list
+                events.add(new CalendarEvent(persian, civil, islamic, "event " + i + " again", "", false, false, null));
+            }
+        }
+        return events;
+    }
+
+    private static void assertSameEvents(String message, List<CalendarEvent> expected, List<CalendarEvent> actual) {
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(message, expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void matchesTheEqualsScan() {
+        Random random = new Random(1);
+        List<CalendarEvent> events = randomEvents(random, 300);
+        EventIndex index = new EventIndex(events);
+        IslamicMonthTable monthTable = IslamicMonthTable.getArithmetic();
+
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            for (int month = 1; month <= 12; month++) {
+                int monthLength = monthTable.getMonthLength(year, month);
+                // Every day of a few years, and a spread of days over the others
+                int step = year >= 1439 && year <= 1441 ? 1 : 11;
+                for (int day = 1 + (year + month) % step; day <= monthLength; day += step) {
+                    IslamicDate date = new IslamicDate(year, month, day);
+                    CivilDate civil = DateConverter.islamicToCivil(date);
+                    PersianDate persian = DateConverter.islamicToPersian(date);
+                    List<CalendarEvent> expected = scan(events, date);
+                    String message = year + "/" + month + "/" + day;
+
+                    assertSameEvents(message, expected, index.getEventsForDay(date));
+                    assertEquals(message, expected.size(), index.countEvents(date, civil, persian));
+                    assertEquals(message, !expected.isEmpty(), index.hasEvents(date, civil, persian));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void followsTheBackingList() {
+        Random random = new Random(2);
+        List<CalendarEvent> events = randomEvents(random, 50);
+        EventIndex index = new EventIndex(events);
+
+        events.addAll(randomEvents(random, 50));
+        List<IslamicDate> days = new ArrayList<>();
+        for (CalendarEvent event : events) {
+            if (event.getIslamicDate() != null && event.getIslamicDate().getYear() != -1) {
+                days.add(event.getIslamicDate());
+            }
+        }
+        for (IslamicDate day : days) {
+            assertSameEvents("appended", scan(events, day), index.getEventsForDay(day));
+        }
+
+        events.subList(0, 30).clear();
+        for (IslamicDate day : days) {
+            assertSameEvents("shrunk", scan(events, day), index.getEventsForDay(day));
+        }
+    }
+}
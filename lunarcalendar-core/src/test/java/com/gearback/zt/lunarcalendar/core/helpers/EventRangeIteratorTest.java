@@ -0,0 +1,74 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class EventRangeIteratorTest {
+    private static CalendarEvent islamicEvent(int year, int month, int day, String title) {
+        return new CalendarEvent(null, null, new IslamicDate(year, month, day), title, "", false, false, null);
+    }
+
+    private static CalendarEngine newEngine() {
+        final List<CalendarEvent> events = new ArrayList<>();
+        events.add(islamicEvent(1440, 1, 1, "first"));
+        events.add(islamicEvent(1440, 1, 1, "second"));
+        events.add(islamicEvent(-1, 1, 3, "every year"));
+        events.add(islamicEvent(1440, 1, 30, "month end"));
+        events.add(islamicEvent(1440, 2, 1, "next month"));
+        return new CalendarEngine(new CalendarEngine.EventsSource() {
+            @Override
+            public List<CalendarEvent> readEvents() {
+                return events;
+            }
+        });
+    }
+
+    @Test
+    public void getDayIsTheDayOfTheLastEventAfterLookingAhead() {
+        CalendarEngine engine = newEngine();
+        List<CalendarEvent> expectedEvents = new ArrayList<>();
+        List<IslamicDate> expectedDays = new ArrayList<>();
+        for (int month = 1; month <= 2; month++) {
+            for (int day = 1; day <= engine.getMonthLength(1440, month); day++) {
+                IslamicDate date = new IslamicDate(1440, month, day);
+                for (CalendarEvent event : engine.getAllEventsForDay(date)) {
+                    expectedEvents.add(event);
+                    expectedDays.add(date);
+                }
+            }
+        }
+
+        EventRangeIterator it = engine.getEventsInRange(new IslamicDate(1440, 1, 1),
+                new IslamicDate(1440, 2, engine.getMonthLength(1440, 2)));
+        int i = 0;
+        while (it.hasNext()) {
+            CalendarEvent event = it.next();
+            // Looking ahead reads the next day with events, which must not change getDay()
+            it.hasNext();
+            IslamicDate day = it.getDay();
+            assertSame(expectedEvents.get(i), event);
+            assertEquals(event.getTitle(), expectedDays.get(i).getMonth(), day.getMonth());
+            assertEquals(event.getTitle(), expectedDays.get(i).getDayOfMonth(), day.getDayOfMonth());
+            i++;
+        }
+        assertEquals(expectedEvents.size(), i);
+        assertEquals(5, i);
+    }
+
+    @Test
+    public void emptyRange() {
+        EventRangeIterator it = newEngine().getEventsInRange(new IslamicDate(1440, 1, 2),
+                new IslamicDate(1440, 1, 1));
+        assertFalse(it.hasNext());
+    }
+}
@@ -0,0 +1,250 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the bitset answers of {@link HolidayCalendar}, through the {@link CalendarEngine}, against
+ * walking the days one by one and looking at their events.
+ */
+public class HolidayCalendarTest {
+    private static final int FIRST_YEAR = 1439;
+    private static final int LAST_YEAR = 1441;
+
+    private CalendarEngine mEngine;
+
+    @Before
+    public void setUp() {
+        final List<CalendarEvent> events = new ArrayList<>();
+        events.add(new CalendarEvent(null, null, new IslamicDate(-1, 1, 10), "every year", "", true, false, null));
+        events.add(new CalendarEvent(null, null, new IslamicDate(1440, 12, 29), "year end", "", true, false, null));
+        events.add(new CalendarEvent(null, null, new IslamicDate(1440, 3, 3), "not a holiday", "", false, false, null));
+        events.add(new CalendarEvent(null, new CivilDate(2019, 1, 1), null, "civil", "", true, false, null));
+        events.add(new CalendarEvent(new PersianDate(-1, 1, 1), null, null, "persian", "", true, false, null));
+        mEngine = new CalendarEngine(new CalendarEngine.EventsSource() {
+            @Override
+            public List<CalendarEvent> readEvents() {
+                return events;
+            }
+        });
+        mEngine.addLocalEvent(new CalendarEvent(null, null, new IslamicDate(1441, 1, 2), "local", "", true, false, null));
+    }
+
+    private boolean isHolidayNaive(IslamicDate day) {
+        if (isFriday(day)) {
+            return true;
+        }
+        for (CalendarEvent event : mEngine.getAllEventsForDay(day)) {
+            if (event.isHoliday() && (mEngine.isCountingLocalHolidays() || !mEngine.getLocalEvents().contains(event))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFriday(IslamicDate day) {
+        CivilDate civil = DateConverter.islamicToCivil(day);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(civil.getYear(), civil.getMonth() - 1, civil.getDayOfMonth());
+        return calendar.get(Calendar.DAY_OF_WEEK) == Calendar.FRIDAY;
+    }
+
+    private IslamicDate next(IslamicDate day) {
+        int year = day.getYear();
+        int month = day.getMonth();
+        int dayOfMonth = day.getDayOfMonth() + 1;
+        if (dayOfMonth > mEngine.getMonthLength(year, month)) {
+            dayOfMonth = 1;
+            if (++month > 12) {
+                month = 1;
+                year++;
+            }
+        }
+        return new IslamicDate(year, month, dayOfMonth);
+    }
+
+    private IslamicDate previous(IslamicDate day) {
+        int year = day.getYear();
+        int month = day.getMonth();
+        int dayOfMonth = day.getDayOfMonth() - 1;
+        if (dayOfMonth < 1) {
+            if (--month < 1) {
+                month = 12;
+                year--;
+            }
+            dayOfMonth = mEngine.getMonthLength(year, month);
+        }
+        return new IslamicDate(year, month, dayOfMonth);
+    }
+
+    private static boolean isAfter(IslamicDate a, IslamicDate b) {
+        if (a.getYear() != b.getYear()) {
+            return a.getYear() > b.getYear();
+        }
+        if (a.getMonth() != b.getMonth()) {
+            return a.getMonth() > b.getMonth();
+        }
+        return a.getDayOfMonth() > b.getDayOfMonth();
+    }
+
+    private int countHolidaysNaive(IslamicDate from, IslamicDate to) {
+        int count = 0;
+        for (IslamicDate day = from; !isAfter(day, to); day = next(day)) {
+            if (isHolidayNaive(day)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private IslamicDate addBusinessDaysNaive(IslamicDate day, int businessDays) {
+        int remaining = Math.abs(businessDays);
+        while (remaining > 0) {
+            day = businessDays > 0 ? next(day) : previous(day);
+            if (!isHolidayNaive(day)) {
+                remaining--;
+            }
+        }
+        return day;
+    }
+
+    private List<IslamicDate> allDays() {
+        List<IslamicDate> days = new ArrayList<>();
+        for (IslamicDate day = new IslamicDate(FIRST_YEAR, 1, 1); day.getYear() <= LAST_YEAR; day = next(day)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static void assertSameDay(String message, IslamicDate expected, IslamicDate actual) {
+        assertEquals(message, expected.getYear(), actual.getYear());
+        assertEquals(message, expected.getMonth(), actual.getMonth());
+        assertEquals(message, expected.getDayOfMonth(), actual.getDayOfMonth());
+    }
+
+    private static String toString(IslamicDate day) {
+        return day.getYear() + "/" + day.getMonth() + "/" + day.getDayOfMonth();
+    }
+
+    @Test
+    public void isHolidayMatchesTheEventsOfEachDay() {
+        for (IslamicDate day : allDays()) {
+            assertEquals(toString(day), isHolidayNaive(day), mEngine.isHoliday(day));
+        }
+    }
+
+    @Test
+    public void fridaysAreHolidays() {
+        int fridays = 0;
+        for (IslamicDate day : allDays()) {
+            if (isFriday(day)) {
+                assertTrue(toString(day), mEngine.isHoliday(day));
+                fridays++;
+            }
+        }
+        assertTrue(fridays > 150);
+
+        // An event that is not a holiday leaves its day a business day
+        IslamicDate day = new IslamicDate(1440, 3, 3);
+        assertEquals(isFriday(day), mEngine.isHoliday(day));
+    }
+
+    @Test
+    public void localHolidaysCanBeLeftOut() {
+        IslamicDate local = new IslamicDate(1441, 1, 2);
+        assertTrue(mEngine.isHoliday(local));
+
+        mEngine.setCountingLocalHolidays(false);
+        assertEquals(isFriday(local), mEngine.isHoliday(local));
+        for (IslamicDate day : allDays()) {
+            assertEquals(toString(day), isHolidayNaive(day), mEngine.isHoliday(day));
+        }
+    }
+
+    @Test
+    public void countHolidaysMatchesADayByDayCount() {
+        List<IslamicDate> days = allDays();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            IslamicDate from = days.get(random.nextInt(days.size()));
+            IslamicDate to = days.get(random.nextInt(days.size()));
+            String range = toString(from) + " - " + toString(to);
+            assertEquals(range, isAfter(from, to) ? 0 : countHolidaysNaive(from, to), mEngine.countHolidays(from, to));
+        }
+    }
+
+    @Test
+    public void countHolidaysAcrossYearBoundaries() {
+        IslamicDate from = new IslamicDate(1439, 12, 20);
+        IslamicDate to = new IslamicDate(1441, 1, 15);
+        assertEquals(countHolidaysNaive(from, to), mEngine.countHolidays(from, to));
+
+        IslamicDate lastDay = new IslamicDate(1440, 12, mEngine.getMonthLength(1440, 12));
+        IslamicDate firstDay = new IslamicDate(1441, 1, 1);
+        assertEquals(countHolidaysNaive(lastDay, firstDay), mEngine.countHolidays(lastDay, firstDay));
+        assertEquals(isHolidayNaive(lastDay) ? 1 : 0, mEngine.countHolidays(lastDay, lastDay));
+    }
+
+    @Test
+    public void addBusinessDaysMatchesADayByDayWalk() {
+        List<IslamicDate> days = allDays();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            IslamicDate day = days.get(random.nextInt(days.size()));
+            int businessDays = random.nextInt(161) - 80;
+            assertSameDay(toString(day) + " + " + businessDays,
+                    addBusinessDaysNaive(day, businessDays), mEngine.addBusinessDays(day, businessDays));
+        }
+    }
+
+    @Test
+    public void addBusinessDaysAcrossYearBoundaries() {
+        IslamicDate end = new IslamicDate(1440, 12, 25);
+        for (int businessDays = 1; businessDays <= 20; businessDays++) {
+            assertSameDay("+" + businessDays, addBusinessDaysNaive(end, businessDays),
+                    mEngine.addBusinessDays(end, businessDays));
+        }
+        IslamicDate start = new IslamicDate(1441, 1, 5);
+        for (int businessDays = -1; businessDays >= -20; businessDays--) {
+            assertSameDay(String.valueOf(businessDays), addBusinessDaysNaive(start, businessDays),
+                    mEngine.addBusinessDays(start, businessDays));
+        }
+        // A whole year and more
+        assertSameDay("+400", addBusinessDaysNaive(end, 400), mEngine.addBusinessDays(end, 400));
+        assertSameDay("-400", addBusinessDaysNaive(start, -400), mEngine.addBusinessDays(start, -400));
+    }
+
+    @Test
+    public void addBusinessDaysFromAHoliday() {
+        List<IslamicDate> holidays = new ArrayList<>();
+        for (IslamicDate day : allDays()) {
+            if (day.getYear() == 1440 && isHolidayNaive(day)) {
+                holidays.add(day);
+            }
+        }
+        assertTrue(holidays.size() > 50);
+        for (IslamicDate holiday : holidays) {
+            for (int businessDays = -3; businessDays <= 3; businessDays++) {
+                IslamicDate expected = businessDays == 0 ? holiday : addBusinessDaysNaive(holiday, businessDays);
+                assertSameDay(toString(holiday) + " + " + businessDays, expected,
+                        mEngine.addBusinessDays(holiday, businessDays));
+            }
+        }
+    }
+}
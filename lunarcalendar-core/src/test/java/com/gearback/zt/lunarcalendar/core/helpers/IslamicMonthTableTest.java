@@ -0,0 +1,74 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the arithmetic table against the month lengths the calendar computed before it, and
+ * against the days {@link DateConverter} puts between the starts of consecutive months.
+ */
+public class IslamicMonthTableTest {
+    private static final int[] LUNAR_DAYS_IN_MONTH = {30, 29, 30, 29, 30, 29, 30, 29, 30, 29, 30, 29};
+
+    private static int baselineMonthLength(int year, int month) {
+        IslamicDate date = new IslamicDate(year, month, 1);
+        if (date.isLeapYear() && month == 12) {
+            return LUNAR_DAYS_IN_MONTH[month - 1] + 1;
+        }
+        return LUNAR_DAYS_IN_MONTH[month - 1];
+    }
+
+    private static long toEpochDay(CivilDate date) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(date.getYear(), date.getMonth() - 1, date.getDayOfMonth());
+        return calendar.getTimeInMillis() / (24 * 60 * 60 * 1000L);
+    }
+
+    private static long monthStartEpochDay(int year, int month) {
+        return toEpochDay(DateConverter.islamicToCivil(new IslamicDate(year, month, 1)));
+    }
+
+    private static void assertMatches(IslamicMonthTable table, int firstYear, int lastYear) {
+        long firstDay = monthStartEpochDay(firstYear, 1);
+        int firstDayNumber = table.getDayNumber(firstYear, 1, 1);
+        for (int year = firstYear; year <= lastYear; year++) {
+            int yearLength = 0;
+            for (int month = 1; month <= 12; month++) {
+                String message = year + "/" + month;
+                int length = table.getMonthLength(year, month);
+                assertEquals(message, baselineMonthLength(year, month), length);
+
+                int nextYear = month == 12 ? year + 1 : year;
+                int nextMonth = month == 12 ? 1 : month + 1;
+                long start = monthStartEpochDay(year, month);
+                assertEquals(message, monthStartEpochDay(nextYear, nextMonth) - start, length);
+                assertEquals(message, start - firstDay, table.getMonthStart(year, month) - firstDayNumber);
+                assertEquals(message, start - firstDay + 14, table.getDayNumber(year, month, 15) - firstDayNumber);
+                yearLength += length;
+            }
+            assertEquals(String.valueOf(year), yearLength, table.getYearLength(year));
+            assertEquals(String.valueOf(year), table.getMonthStart(year, 1), table.getYearStart(year));
+        }
+    }
+
+    @Test
+    public void arithmeticTableMatchesTheConverter() {
+        assertMatches(IslamicMonthTable.getArithmetic(),
+                IslamicMonthTable.DEFAULT_FIRST_YEAR, IslamicMonthTable.DEFAULT_LAST_YEAR);
+    }
+
+    @Test
+    public void yearsOutsideTheTableFallBackToArithmetic() {
+        // Covers years before, within and after the table
+        assertMatches(IslamicMonthTable.arithmetic(1400, 1420), 1380, 1440);
+    }
+}
@@ -0,0 +1,130 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+import com.gearback.zt.lunarcalendar.core.CalendarEngine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TodayCacheTest {
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("Asia/Tehran");
+
+    private static class FakeClock implements TodayCache.Clock {
+        long mNow;
+
+        @Override
+        public long currentTimeMillis() {
+            return mNow;
+        }
+    }
+
+    private FakeClock mClock;
+    private TodayCache mTodayCache;
+    private Calendar mCalendar;
+
+    @Before
+    public void setUp() {
+        mCalendar = Calendar.getInstance(TIME_ZONE);
+        mCalendar.clear();
+        mCalendar.set(2019, Calendar.MARCH, 10, 23, 59, 59);
+        mClock = new FakeClock();
+        mClock.mNow = mCalendar.getTimeInMillis();
+        mTodayCache = new TodayCache();
+        mTodayCache.setTimeZone(TIME_ZONE);
+        mTodayCache.setClock(mClock);
+    }
+
+    private IslamicDate expectedToday(int lunarOffset) {
+        Calendar calendar = Calendar.getInstance(TIME_ZONE);
+        calendar.setTimeInMillis(mClock.mNow);
+        return DateConverter.civilToIslamic(new CivilDate(calendar), lunarOffset);
+    }
+
+    private static void assertSameDay(IslamicDate expected, IslamicDate actual) {
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getMonth(), actual.getMonth());
+        assertEquals(expected.getDayOfMonth(), actual.getDayOfMonth());
+    }
+
+    private static Day findToday(List<Day> days) {
+        for (Day day : days) {
+            if (day.isToday()) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void todayFollowsTheClockAcrossMidnight() {
+        IslamicDate before = mTodayCache.getToday();
+        assertSameDay(expectedToday(0), before);
+
+        mClock.mNow += 2000;
+        IslamicDate after = mTodayCache.getToday();
+        assertSameDay(expectedToday(0), after);
+        assertEquals(1, dayNumber(after) - dayNumber(before));
+
+        // Going back, e.g. when the user sets the clock, is followed too
+        mClock.mNow -= 2000;
+        assertSameDay(before, mTodayCache.getToday());
+    }
+
+    @Test
+    public void todayFollowsTheLunarOffset() {
+        IslamicDate before = mTodayCache.getToday();
+
+        mTodayCache.setLunarOffset(1);
+        IslamicDate after = mTodayCache.getToday();
+        assertSameDay(expectedToday(1), after);
+        assertEquals(1, Math.abs(dayNumber(after) - dayNumber(before)));
+    }
+
+    @Test
+    public void cachedMonthsDropTodayAcrossMidnight() {
+        CalendarEngine engine = new CalendarEngine(CalendarEngine.NO_EVENTS);
+        IslamicDate today = mTodayCache.getToday();
+        List<Day> days = engine.getDays(today.getYear(), today.getMonth(), today, 0, true);
+        assertSame(days, engine.getDays(today.getYear(), today.getMonth(), today, 0, false));
+
+        mClock.mNow += 2000;
+        IslamicDate tomorrow = mTodayCache.getToday();
+        assertNull(engine.getDays(today.getYear(), today.getMonth(), tomorrow, 0, false));
+
+        days = engine.getDays(tomorrow.getYear(), tomorrow.getMonth(), tomorrow, 0, true);
+        Day flagged = findToday(days);
+        assertNotNull(flagged);
+        assertSameDay(tomorrow, flagged.getIslamicDate());
+    }
+
+    @Test
+    public void cachedMonthsAreKeyedByLunarOffset() {
+        CalendarEngine engine = new CalendarEngine(CalendarEngine.NO_EVENTS);
+        IslamicDate today = mTodayCache.getToday();
+        engine.getDays(today.getYear(), today.getMonth(), today, mTodayCache.getLunarOffset(), true);
+
+        mTodayCache.setLunarOffset(1);
+        IslamicDate shifted = mTodayCache.getToday();
+        assertNull(engine.getDays(today.getYear(), today.getMonth(), shifted, mTodayCache.getLunarOffset(), false));
+
+        List<Day> days = engine.getDays(shifted.getYear(), shifted.getMonth(), shifted,
+                mTodayCache.getLunarOffset(), true);
+        assertSameDay(shifted, findToday(days).getIslamicDate());
+    }
+
+    private static int dayNumber(IslamicDate date) {
+        return IslamicMonthTable.getArithmetic().getDayNumber(date.getYear(), date.getMonth(), date.getDayOfMonth());
+    }
+}
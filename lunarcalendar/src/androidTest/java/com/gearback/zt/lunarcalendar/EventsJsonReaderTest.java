@@ -0,0 +1,92 @@
+package com.gearback.zt.lunarcalendar;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import com.gearback.zt.calendarcore.core.models.AbstractDate;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.lunarcalendar.core.helpers.EventsJsonReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the streaming catalog reader against the JSONObject based parsing it replaced.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EventsJsonReaderTest {
+    @Test
+    public void streamingReaderMatchesJsonObjectParsing() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+
+        List<CalendarEvent> expected = readWithJsonObject(context.getResources().openRawResource(R.raw.events));
+        List<CalendarEvent> actual = EventsJsonReader.read(context.getResources().openRawResource(R.raw.events));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            CalendarEvent e = expected.get(i);
+            CalendarEvent a = actual.get(i);
+            assertDateEquals(e.getIslamicDate(), a.getIslamicDate());
+            assertDateEquals(e.getPersianDate(), a.getPersianDate());
+            assertDateEquals(e.getCivilDate(), a.getCivilDate());
+            assertEquals(e.getTitle(), a.getTitle());
+            assertEquals(e.getDescription(), a.getDescription());
+            assertEquals(e.getType(), a.getType());
+            assertEquals(e.isHoliday(), a.isHoliday());
+            assertEquals(e.isObit(), a.isObit());
+        }
+    }
+
+    private static void assertDateEquals(AbstractDate expected, AbstractDate actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getMonth(), actual.getMonth());
+        assertEquals(expected.getDayOfMonth(), actual.getDayOfMonth());
+    }
+
+    private static List<CalendarEvent> readWithJsonObject(InputStream is) throws Exception {
+        Scanner s = new Scanner(is).useDelimiter("\\A");
+        JSONObject root = new JSONObject(s.hasNext() ? s.next() : "");
+        List<CalendarEvent> result = new ArrayList<>();
+        String[] arrays = {"lunarCalendar", "persianCalendar", "gregorianCalendar"};
+        for (int calendar = 0; calendar < arrays.length; calendar++) {
+            JSONArray events = root.getJSONArray(arrays[calendar]);
+            for (int i = 0; i < events.length(); ++i) {
+                JSONObject event = events.getJSONObject(i);
+                int month = event.getInt("month");
+                int day = event.getInt("day");
+                String title = event.getString("title");
+                String desc = event.getString("description");
+                String type = event.getString("type");
+                boolean holiday = event.getBoolean("holiday");
+                boolean obit = event.getBoolean("obit");
+                if (calendar == 0) {
+                    result.add(new CalendarEvent(null, null, new IslamicDate(-1, month, day), title, desc, holiday, obit, type));
+                } else if (calendar == 1) {
+                    result.add(new CalendarEvent(new PersianDate(-1, month, day), null, null, title, desc, holiday, obit, type));
+                } else {
+                    result.add(new CalendarEvent(null, new CivilDate(-1, month, day), null, title, desc, holiday, obit, type));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -16,10 +16,12 @@ import com.gearback.zt.calendarcore.core.interfaces.OnMonthChangedListener;
 import com.gearback.zt.calendarcore.core.models.IslamicDate;
 import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
 import com.gearback.zt.lunarcalendar.core.fragments.CalendarFragment;
+import com.gearback.zt.lunarcalendar.core.views.YearView;
 
 public class LunarCalendarView extends FrameLayout {
     private LunarCalendarHandler mCalendarHandler;
     CalendarFragment mCalendarFragment = null;
+    private YearView mYearView;
 
     public LunarCalendarView(Context context) {
         super(context);
@@ -87,6 +89,12 @@ public class LunarCalendarView extends FrameLayout {
         mCalendarHandler.setColorEventUnderline(typedArray.getColor(
                 R.styleable.LunarCalendarView_lcv_eventUnderlineColor,
                 mCalendarHandler.getColorEventUnderline()));
+        mCalendarHandler.setDrawMonthsOnCanvas(typedArray.getBoolean(
+                R.styleable.LunarCalendarView_lcv_drawMonthsOnCanvas,
+                mCalendarHandler.isDrawingMonthsOnCanvas()));
+        mCalendarHandler.setRecycleMonthPages(typedArray.getBoolean(
+                R.styleable.LunarCalendarView_lcv_recycleMonthPages,
+                mCalendarHandler.isRecyclingMonthPages()));
         try {
             mCalendarFragment = CalendarFragment.class.newInstance();
         } catch (InstantiationException e) {
@@ -94,6 +102,17 @@ public class LunarCalendarView extends FrameLayout {
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
+        mYearView = new YearView(context);
+        mYearView.setVisibility(GONE);
+        mYearView.setOnMonthClickListener(new YearView.OnMonthClickListener() {
+            @Override
+            public void onMonthClick(int year, int month) {
+                showMonths();
+                mCalendarFragment.bringMonth(year, month);
+            }
+        });
+        addView(mYearView, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+
         setBackgroundColor(mCalendarHandler.getColorBackground());
         FragmentManager m = ((AppCompatActivity)getContext()).getSupportFragmentManager();
         m.beginTransaction()
@@ -113,6 +132,8 @@ public class LunarCalendarView extends FrameLayout {
 
         if(mCalendarHandler.getOnEventUpdateListener() != null)
             mCalendarHandler.getOnEventUpdateListener().update();
+        if (isShowingYear())
+            mYearView.reload();
     }
 
     public void goToDate(IslamicDate date){
@@ -134,6 +155,49 @@ public class LunarCalendarView extends FrameLayout {
         mCalendarFragment.changeMonth(-offset);
     }
 
+    public void goToNextYear(){
+        goToYearFromNow(1);
+    }
+
+    public void goToPreviousYear(){
+        goToYearFromNow(-1);
+    }
+
+    /**
+     * Moves the year overview by whole years when it is shown, or the month pages by twelve
+     * months otherwise.
+     */
+    public void goToYearFromNow(int offset){
+        if (isShowingYear()) {
+            mYearView.setYear(mYearView.getYear() + offset);
+        } else {
+            mCalendarFragment.changeMonth(-12 * offset);
+        }
+    }
+
+    /**
+     * Shows the twelve months of the year of the current month page in place of the pages.
+     * Tapping a month goes back to the pages, on that month.
+     */
+    public void showYear(){
+        showYear(mCalendarHandler.getMonthStart(mCalendarFragment.getViewPagerPosition()).getYear());
+    }
+
+    public void showYear(int year){
+        mYearView.setYear(year);
+        mYearView.setVisibility(VISIBLE);
+        findViewById(R.id.lunarHolder).setVisibility(GONE);
+    }
+
+    public void showMonths(){
+        mYearView.setVisibility(GONE);
+        findViewById(R.id.lunarHolder).setVisibility(VISIBLE);
+    }
+
+    public boolean isShowingYear(){
+        return mYearView.getVisibility() == VISIBLE;
+    }
+
     public LunarCalendarHandler getCalendar() {
         return mCalendarHandler;
     }
@@ -1,48 +1,71 @@
 package com.gearback.zt.lunarcalendar.core;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.graphics.Typeface;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.preference.PreferenceManager;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.RawRes;
-import android.text.TextUtils;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.os.TraceCompat;
 import android.util.Log;
 import android.widget.TextView;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.Scanner;
 import java.util.TimeZone;
 
 import com.gearback.zt.calendarcore.core.Constants;
-import com.gearback.zt.calendarcore.core.exceptions.DayOutOfRangeException;
 import com.gearback.zt.calendarcore.core.interfaces.OnDayClickedListener;
 import com.gearback.zt.calendarcore.core.interfaces.OnDayLongClickedListener;
 import com.gearback.zt.calendarcore.core.interfaces.OnEventUpdateListener;
 import com.gearback.zt.calendarcore.core.interfaces.OnMonthChangedListener;
 import com.gearback.zt.calendarcore.core.models.AbstractDate;
 import com.gearback.zt.calendarcore.core.models.CalendarEvent;
-import com.gearback.zt.calendarcore.core.models.CivilDate;
 import com.gearback.zt.calendarcore.core.models.Day;
 import com.gearback.zt.calendarcore.core.models.IslamicDate;
-import com.gearback.zt.calendarcore.core.models.PersianDate;
 import com.gearback.zt.calendarcore.helpers.ArabicShaping;
-import com.gearback.zt.calendarcore.helpers.DateConverter;
 import com.gearback.zt.lunarcalendar.R;
-
+import com.gearback.zt.lunarcalendar.core.helpers.DayTextCache;
+import com.gearback.zt.lunarcalendar.core.helpers.EventIndex;
+import com.gearback.zt.lunarcalendar.core.helpers.EventRangeIterator;
+import com.gearback.zt.lunarcalendar.core.helpers.EventTypes;
+import com.gearback.zt.lunarcalendar.core.helpers.EventsCatalogReader;
+import com.gearback.zt.lunarcalendar.core.helpers.EventsJsonReader;
+import com.gearback.zt.lunarcalendar.core.helpers.LocalEventStore;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthCache;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthLoader;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthPageDispatcher;
+import com.gearback.zt.lunarcalendar.core.helpers.TodayCache;
+import com.gearback.zt.lunarcalendar.core.models.LunarYear;
+
+/**
+ * Android side of the calendar: resources, preferences, fonts, colors, listeners and the month
+ * pages on screen. Dates, events and month building are done by the {@link CalendarEngine} it
+ * wraps, which it delegates to.
+ */
 public class LunarCalendarHandler {
+    /**
+     * Names of the trace sections the calendar adds, for finding them in Perfetto or systrace.
+     */
+    public static final String TRACE_READ_EVENTS = "LunarCalendar:readEvents";
+    public static final String TRACE_GET_DAYS = "LunarCalendar:getDays";
+    public static final String TRACE_BIND_MONTH_PAGE = "LunarCalendar:bindMonthPage";
+    public static final String TRACE_GET_YEAR = "LunarCalendar:getYear";
+
     private final String TAG = LunarCalendarHandler.class.getName();
     private Context mContext;
     private Typeface mTypeface;
@@ -55,8 +78,8 @@ public class LunarCalendarHandler {
     private int mColorNormalDaySelected = Color.BLUE;
     private int mColorDayName = Color.LTGRAY;
     private int mColorEventUnderline = Color.RED;
-
-    private List<Integer> lunarDaysInMonth = Arrays.asList(30, 29, 30, 29, 30, 29, 30, 29, 30, 29, 30, 29);
+    private final int[] mEventTypeColors = new int[EventTypes.COUNT];
+    private int mColoredEventTypes;
 
     @DrawableRes
     private int mSelectedDayBackground = R.drawable.circle_select;
@@ -66,50 +89,70 @@ public class LunarCalendarHandler {
     private float mDaysFontSize = 25;
     private float mHeadersFontSize = 20;
 
-    private boolean mHighlightLocalEvents = true;
-    private boolean mHighlightOfficialEvents = true;
-    private boolean mHighlightAfghanistanEvents = true;
-    private boolean mHighlightIranEvents = true;
-    private boolean mHighlightAncientEvents = true;
-    private boolean mHighlightIslamicEvents = true;
-    private boolean mHighlightGregorianEvents = true;
-    private boolean mHighlightAdEvents = true;
+    private boolean mDrawMonthsOnCanvas = true;
+    private boolean mRecycleMonthPages = true;
 
-    private List<CalendarEvent> mOfficialEvents;
-    private List<CalendarEvent> mLocalEvents;
+    @RawRes
+    private int mEventsResource = 0;
+    private final CalendarEngine mEngine;
+    private volatile LocalEventStore mLocalEventStore;
+    private MonthLoader mMonthLoader;
+    private MonthPageDispatcher mMonthPageDispatcher;
 
     private OnDayClickedListener mOnDayClickedListener;
     private OnDayLongClickedListener mOnDayLongClickedListener;
     private OnMonthChangedListener mOnMonthChangedListener;
     private OnEventUpdateListener mOnEventUpdateListener;
 
-    private String[] mMonthNames = {
-            "محرم",
-            "صفر",
-            "ربیع‌الاول",
-            "ربیع‌الثانی",
-            "جمادی‌الاول",
-            "جمادی‌الثانی",
-            "رجب",
-            "شعبان",
-            "رمضان",
-            "شوال",
-            "ذی‌القعده",
-            "ذی‌الحجه"
+    private static final String LUNAR_OFFSET = "LUNAR_OFFSET";
+    private static final TimeZone IRAN_TIME_ZONE = TimeZone.getTimeZone("Asia/Tehran");
+
+    private final TodayCache mTodayCache = new TodayCache();
+    private final DayTextCache mDayTextCache = new DayTextCache(this);
+
+    private final CalendarEngine.EventsSource mOfficialEventsSource = new CalendarEngine.EventsSource() {
+        @Override
+        public List<CalendarEvent> readEvents() {
+            TraceCompat.beginSection(TRACE_READ_EVENTS);
+            try {
+                return readOfficialEvents();
+            } finally {
+                TraceCompat.endSection();
+            }
+        }
     };
-    private String[] mWeekDaysNames = {
-            "شنبه",
-            "یک‌شنبه",
-            "دوشنبه",
-            "سه‌شنبه",
-            "چهارشنبه",
-            "پنج‌شنبه",
-            "جمعه"
+
+    private final SharedPreferences.OnSharedPreferenceChangeListener mPreferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences preferences, String key) {
+                    if (LUNAR_OFFSET.equals(key)) {
+                        mTodayCache.setLunarOffset(preferences.getInt(LUNAR_OFFSET, 0));
+                        invalidateMonthLoads();
+                    }
+                }
+            };
+
+    private final BroadcastReceiver mTimeChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mTodayCache.invalidate();
+            invalidateMonthLoads();
+        }
     };
 
     private LunarCalendarHandler(Context context) {
         this.mContext = context;
-        mLocalEvents = new ArrayList<>();
+        mEngine = new CalendarEngine(mOfficialEventsSource);
+
+        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(mContext);
+        mTodayCache.setLunarOffset(preferences.getInt(LUNAR_OFFSET, 0));
+        preferences.registerOnSharedPreferenceChangeListener(mPreferenceListener);
+
+        IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_DATE_CHANGED);
+        mContext.registerReceiver(mTimeChangedReceiver, filter);
     }
 
     private static WeakReference<LunarCalendarHandler> myWeakInstance;
@@ -121,6 +164,10 @@ public class LunarCalendarHandler {
         return myWeakInstance.get();
     }
 
+    public CalendarEngine getEngine() {
+        return mEngine;
+    }
+
     /**
      * Text shaping is a essential thing on supporting Arabic script text on older Android versions.
      * It converts normal Arabic character to their presentation forms according to their position
@@ -154,248 +201,318 @@ public class LunarCalendarHandler {
         textView.setText(shape(textView.getText().toString()));
     }
 
-    private char[] mPreferredDigits = Constants.PERSIAN_DIGITS;
+    /**
+     * @return The shaped and measured day numbers and weekday initials in the days typeface and
+     * font size, with the preferred digits
+     */
+    public DayTextCache.Texts getDayTexts() {
+        return getDayTexts(getTypeface(), mDaysFontSize);
+    }
+
+    /**
+     * @return The shaped and measured day numbers and weekday initials in the headers typeface
+     * and font size, with the preferred digits
+     */
+    public DayTextCache.Texts getHeaderTexts() {
+        return getDayTexts(getHeadersTypeface(), mHeadersFontSize);
+    }
+
+    public DayTextCache.Texts getDayTexts(Typeface typeface, float textSize) {
+        return mDayTextCache.get(typeface, textSize, getPreferredDigits());
+    }
+
     private boolean mIranTime;
 
+    /**
+     * Today is computed once a day and refreshed at the next local midnight, on time zone changes
+     * and when the {@code LUNAR_OFFSET} preference changes.
+     *
+     * @return A copy of today's date
+     */
     public IslamicDate getToday() {
-        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(mContext);
-        return DateConverter.civilToIslamic(new CivilDate(makeCalendarFromDate(new Date())), preferences.getInt("LUNAR_OFFSET", 0));
+        return mTodayCache.getToday();
+    }
+
+    private int getLunarOffset() {
+        return mTodayCache.getLunarOffset();
+    }
+
+    /**
+     * Replaces the source of the current time, e.g. to drive day changes from tests.
+     *
+     * @param clock Clock to read the time from, or null for the system one
+     */
+    public LunarCalendarHandler setClock(TodayCache.Clock clock) {
+        mTodayCache.setClock(clock);
+        invalidateMonthLoads();
+        return this;
     }
 
     public Calendar makeCalendarFromDate(Date date) {
         Calendar calendar = Calendar.getInstance();
         if (mIranTime) {
-            calendar.setTimeZone(TimeZone.getTimeZone("Asia/Tehran"));
+            calendar.setTimeZone(IRAN_TIME_ZONE);
         }
         calendar.setTime(date);
         return calendar;
     }
 
     public String formatNumber(int number) {
-        return formatNumber(Integer.toString(number));
+        return mEngine.formatNumber(number);
     }
 
     public String formatNumber(String number) {
-        if (mPreferredDigits == Constants.ARABIC_DIGITS)
-            return number;
-
-        StringBuilder sb = new StringBuilder();
-        for (char i : number.toCharArray()) {
-            if (Character.isDigit(i)) {
-                sb.append(mPreferredDigits[Integer.parseInt(i + "")]);
-            } else {
-                sb.append(i);
-            }
-        }
-        return sb.toString();
+        return mEngine.formatNumber(number);
+    }
+
+    public char[] getPreferredDigits() {
+        return mEngine.getPreferredDigits();
+    }
+
+    /**
+     * Switches the digits numbers are shown with, e.g. {@link Constants#PERSIAN_DIGITS} or
+     * {@link Constants#ARABIC_DIGITS}. Pages already on screen keep their digits until the view
+     * is updated.
+     *
+     * @param preferredDigits The ten digits to use, from zero to nine
+     */
+    public LunarCalendarHandler setPreferredDigits(char[] preferredDigits) {
+        mEngine.setPreferredDigits(preferredDigits);
+        invalidateMonthLoads();
+        return this;
     }
 
     public String dateToString(AbstractDate date) {
-        return formatNumber(date.getDayOfMonth()) + ' ' + getMonthName(date) + ' ' +
-                formatNumber(date.getYear());
+        return mEngine.dateToString(date);
     }
 
     public String dayTitleSummary(IslamicDate islamicDate) {
-        return getWeekDayName(islamicDate) + Constants.PERSIAN_COMMA + " " + dateToString(islamicDate);
+        return mEngine.dayTitleSummary(islamicDate);
     }
 
     public boolean isHighlightingLocalEvents() {
-        return mHighlightLocalEvents;
+        return mEngine.isHighlightingLocalEvents();
     }
 
     public boolean isHighlightAfghanistanEvents() {
-        return mHighlightAfghanistanEvents;
+        return mEngine.isHighlightAfghanistanEvents();
     }
 
     public boolean isHighlightIranEvents() {
-        return mHighlightIranEvents;
+        return mEngine.isHighlightIranEvents();
     }
 
     public boolean isHighlightAncientEvents() {
-        return mHighlightAncientEvents;
+        return mEngine.isHighlightAncientEvents();
     }
 
     public boolean isHighlightIslamicEvents() {
-        return mHighlightIslamicEvents;
+        return mEngine.isHighlightIslamicEvents();
     }
 
     public boolean isHighlightGregorianEvents() {
-        return mHighlightGregorianEvents;
+        return mEngine.isHighlightGregorianEvents();
     }
 
     public boolean isHighlightAdEvents() {
-        return mHighlightAdEvents;
+        return mEngine.isHighlightAdEvents();
     }
 
     public LunarCalendarHandler setHighlightLocalEvents(boolean highlightLocalEvents) {
-        mHighlightLocalEvents = highlightLocalEvents;
+        mEngine.setHighlightLocalEvents(highlightLocalEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightAfghanistanEvents(boolean highlightAfghanistanEvents) {
-        mHighlightAfghanistanEvents = highlightAfghanistanEvents;
+        mEngine.setHighlightAfghanistanEvents(highlightAfghanistanEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightIranEvents(boolean highlightIranEvents) {
-        mHighlightIranEvents = highlightIranEvents;
+        mEngine.setHighlightIranEvents(highlightIranEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightIslamicEvents(boolean highlightIslamicEvents) {
-        mHighlightIslamicEvents = highlightIslamicEvents;
+        mEngine.setHighlightIslamicEvents(highlightIslamicEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightAncientEvents(boolean highlightAncientEvents) {
-        mHighlightAncientEvents = highlightAncientEvents;
+        mEngine.setHighlightAncientEvents(highlightAncientEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightGregorianEvents(boolean highlightGregorianEvents) {
-        mHighlightGregorianEvents = highlightGregorianEvents;
+        mEngine.setHighlightGregorianEvents(highlightGregorianEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public LunarCalendarHandler setHighlightAdEvents(boolean highlightAdEvents) {
-        mHighlightAdEvents = highlightAdEvents;
+        mEngine.setHighlightAdEvents(highlightAdEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public boolean isHighlightingOfficialEvents() {
-        return mHighlightOfficialEvents;
+        return mEngine.isHighlightingOfficialEvents();
     }
 
     public LunarCalendarHandler setHighlightOfficialEvents(boolean highlightOfficialEvents) {
-        mHighlightOfficialEvents = highlightOfficialEvents;
+        mEngine.setHighlightOfficialEvents(highlightOfficialEvents);
+        invalidateMonthLoads();
         return this;
     }
 
     public String[] monthsNamesOfCalendar(AbstractDate date) {
-        return mMonthNames.clone();
+        return mEngine.monthsNamesOfCalendar(date);
     }
 
     public String getMonthName(AbstractDate date) {
-        return monthsNamesOfCalendar(date)[date.getMonth() - 1];
+        return mEngine.getMonthName(date);
     }
 
     public String getWeekDayName(AbstractDate date) {
-        if (date instanceof IslamicDate)
-            date = DateConverter.islamicToCivil((IslamicDate) date);
-        else if (date instanceof PersianDate)
-            date = DateConverter.persianToCivil((PersianDate) date);
-
-        return mWeekDaysNames[date.getDayOfWeek() % 7];
-    }
-
-    private String readStream(InputStream is) {
-        // http://stackoverflow.com/a/5445161
-        Scanner s = new Scanner(is).useDelimiter("\\A");
-        return s.hasNext() ? s.next() : "";
+        return mEngine.getWeekDayName(date);
     }
 
-    private String readRawResource(@RawRes int res) {
-        return readStream(mContext.getResources().openRawResource(res));
+    public List<CalendarEvent> readEventsFromJSON() {
+        return readEventsFromJSON(mEventsResource != 0 ? mEventsResource : R.raw.events);
     }
 
-    public List<CalendarEvent> readEventsFromJSON() {
-        List<CalendarEvent> result = new ArrayList<>();
-        String json = readRawResource(R.raw.events);
+    public List<CalendarEvent> readEventsFromJSON(@RawRes int res) {
+        InputStream is = mContext.getResources().openRawResource(res);
         try {
-            JSONArray lunarCalendar = new JSONObject(json).getJSONArray("lunarCalendar");
-            for (int i = 0; i < lunarCalendar.length(); ++i) {
-                JSONObject event = lunarCalendar.getJSONObject(i);
-                int month = event.getInt("month");
-                int day = event.getInt("day");
-                String title = event.getString("title");
-                String desc = event.getString("description");
-                String type = event.getString("type");
-                boolean holiday = event.getBoolean("holiday");
-                boolean obit = event.getBoolean("obit");
-                result.add(new CalendarEvent(null, null, new IslamicDate(-1, month, day), title, desc, holiday, obit, type));
-            }
+            return EventsJsonReader.read(is);
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Could not read events", e);
+            return new ArrayList<>();
+        }
+    }
 
-            JSONArray persianCalendar = new JSONObject(json).getJSONArray("persianCalendar");
-            for (int i = 0; i < persianCalendar.length(); ++i) {
-                JSONObject event = persianCalendar.getJSONObject(i);
-                int month = event.getInt("month");
-                int day = event.getInt("day");
-                String title = event.getString("title");
-                String desc = event.getString("description");
-                String type = event.getString("type");
-                boolean holiday = event.getBoolean("holiday");
-                boolean obit = event.getBoolean("obit");
-                result.add(new CalendarEvent(new PersianDate(-1, month, day), null, null, title, desc, holiday, obit, type));
+    /**
+     * Loads the official events from the binary catalog compiled at build time, or from the JSON
+     * catalog when a custom one was set.
+     */
+    public List<CalendarEvent> readOfficialEvents() {
+        if (mEventsResource == 0) {
+            try {
+                return EventsCatalogReader.read(mContext.getAssets().open(EventsCatalogReader.ASSET_NAME));
+            } catch (IOException e) {
+                Log.e(TAG, "Could not read the compiled events catalog, reading the JSON one", e);
             }
+        }
+        return readEventsFromJSON();
+    }
 
-            JSONArray gregorianCalendar = new JSONObject(json).getJSONArray("gregorianCalendar");
-            for (int i = 0; i < gregorianCalendar.length(); ++i) {
-                JSONObject event = gregorianCalendar.getJSONObject(i);
-                int month = event.getInt("month");
-                int day = event.getInt("day");
-                String title = event.getString("title");
-                String desc = event.getString("description");
-                String type = event.getString("type");
-                boolean holiday = event.getBoolean("holiday");
-                boolean obit = event.getBoolean("obit");
-                result.add(new CalendarEvent(null, new CivilDate(-1, month, day), null, title, desc, holiday, obit, type));
-            }
+    public int getEventsResource() {
+        return mEventsResource;
+    }
 
-        } catch (JSONException e) {
-            Log.e(TAG, e.getMessage());
-        }
-        return result;
+    /**
+     * Replaces the bundled official events with a custom JSON catalog, in the schema of
+     * {@code events.json}. Passing 0 goes back to the bundled catalog.
+     */
+    public LunarCalendarHandler setEventsResource(@RawRes int eventsResource) {
+        mEventsResource = eventsResource;
+        mEngine.setOfficialEventsSource(mOfficialEventsSource);
+        invalidateMonthLoads();
+        return this;
     }
 
     public List<CalendarEvent> getOfficialEventsForDay(IslamicDate day){
-        if (mOfficialEvents == null)
-            mOfficialEvents = readEventsFromJSON();
-
-        return getEventsForDay(day, mOfficialEvents);
+        return mEngine.getOfficialEventsForDay(day);
     }
 
     public List<CalendarEvent> getAllEventsForDay(IslamicDate day) {
-        List<CalendarEvent> events = getOfficialEventsForDay(day);
-        List<CalendarEvent> localEvents = getLocalEventsForDay(day);
-        events.addAll(localEvents);
-        return events;
+        return mEngine.getAllEventsForDay(day);
+    }
+
+    /**
+     * Returns the official and local events from one day to another, both included, in date
+     * order. Days are read lazily as the iterator advances, so an agenda can stop early; use
+     * {@link EventRangeIterator#getDay()} for the day of each event.
+     */
+    public EventRangeIterator getEventsInRange(IslamicDate from, IslamicDate to) {
+        return mEngine.getEventsInRange(from, to);
     }
 
     public String getEventsTitle(IslamicDate day, boolean holiday) {
-        String titles = "";
-        boolean first = true;
-        List<CalendarEvent> dayEvents = getAllEventsForDay(day);
+        return mEngine.getEventsTitle(day, holiday);
+    }
 
-        for (CalendarEvent event : dayEvents) {
-            if (event.isHoliday() == holiday) {
-                if (first) {
-                    first = false;
+    /**
+     * Tells whether the day is a Friday or has a holiday event, without collecting its events.
+     * Meant for loops over many days, e.g. payroll or scheduling.
+     */
+    public boolean isHoliday(IslamicDate day) {
+        return mEngine.isHoliday(day);
+    }
 
-                } else {
-                    titles = titles + "\n";
-                }
-                titles = titles + event.getTitle();
-            }
-        }
-        return titles;
+    /**
+     * @return The number of holidays from one day to another, both included
+     */
+    public int countHolidays(IslamicDate from, IslamicDate to) {
+        return mEngine.countHolidays(from, to);
+    }
+
+    /**
+     * @return The business day that many business days after the given day, or before it when
+     * negative
+     */
+    public IslamicDate addBusinessDays(IslamicDate day, int businessDays) {
+        return mEngine.addBusinessDays(day, businessDays);
+    }
+
+    public boolean isCountingLocalHolidays() {
+        return mEngine.isCountingLocalHolidays();
+    }
+
+    public LunarCalendarHandler setCountingLocalHolidays(boolean countingLocalHolidays) {
+        mEngine.setCountingLocalHolidays(countingLocalHolidays);
+        return this;
     }
 
     public LunarCalendarHandler setMonthNames(String[] monthNames) {
-        mMonthNames = monthNames;
+        mEngine.setMonthNames(monthNames);
         return this;
     }
 
     public LunarCalendarHandler setWeekDaysNames(String[] weekDaysNames) {
-        mWeekDaysNames = weekDaysNames;
+        mEngine.setWeekDaysNames(weekDaysNames);
         return this;
     }
 
     public List<Day> getDays(int offset) {
-        List<Day> days = new ArrayList<>();
-        IslamicDate islamicDate = getToday();
-        int month = islamicDate.getMonth() - offset;
+        return getDays(offset, true);
+    }
+
+    /**
+     * Returns the days of the month at the given offset only if they are cached, without
+     * building them.
+     */
+    public List<Day> peekDays(int offset) {
+        return getDays(offset, false);
+    }
+
+    /**
+     * @return The first day of the month at the given offset from the current month, offsets
+     * counting backwards like the pager positions do
+     */
+    public IslamicDate getMonthStart(int offset) {
+        return getMonthStart(getToday(), offset);
+    }
+
+    private static IslamicDate getMonthStart(IslamicDate today, int offset) {
+        int month = today.getMonth() - offset;
         month -= 1;
-        int year = islamicDate.getYear();
+        int year = today.getYear();
 
         year = year + (month / 12);
         month = month % 12;
@@ -404,86 +521,70 @@ public class LunarCalendarHandler {
             month += 12;
         }
         month += 1;
-        islamicDate.setMonth(month);
-        islamicDate.setYear(year);
-        islamicDate.setDayOfMonth(1);
-        int monthLength = getMonthLength(year, month);
-
-        Log.e("first", islamicDate.getYear() + "/" + islamicDate.getMonth() + "/" + islamicDate.getDayOfMonth());
+        return new IslamicDate(year, month, 1);
+    }
 
-        int dayOfWeek = DateConverter.islamicToCivil(islamicDate).getDayOfWeek() % 7;
- 
+    private List<Day> getDays(int offset, boolean build) {
+        IslamicDate today = getToday();
+        IslamicDate monthStart = getMonthStart(today, offset);
+        if (!build) {
+            return mEngine.getDays(monthStart.getYear(), monthStart.getMonth(), today, getLunarOffset(), false);
+        }
+        TraceCompat.beginSection(TRACE_GET_DAYS);
         try {
-            IslamicDate today = getToday();
-            Log.e("today", today.getYear() + "/" + today.getMonth() + "/" + today.getDayOfMonth());
-            for (int i = 1; i <= monthLength; i++) {
-                islamicDate.setDayOfMonth(i);
-
-                Day day = new Day();
-                day.setNum(formatNumber(i));
-                day.setDayOfWeek(dayOfWeek);
+            return mEngine.getDays(monthStart.getYear(), monthStart.getMonth(), today, getLunarOffset(), true);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
 
-                if (dayOfWeek == 6 || !TextUtils.isEmpty(getEventsTitle(islamicDate, true))) {
-                    day.setHoliday(true);
-                }
+    /**
+     * Returns the days of a whole Islamic year, built in one pass rather than month by month,
+     * for a year overview.
+     */
+    public LunarYear getLunarYear(int year) {
+        TraceCompat.beginSection(TRACE_GET_YEAR);
+        try {
+            return mEngine.getLunarYear(year, getToday());
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
 
-                if (mHighlightLocalEvents) {
-                    if (getLocalEventsForDay(islamicDate).size() > 0) {
-                        day.setLocalEvent(true);
-                    }
-                }
-                if (mHighlightOfficialEvents) {
-                    boolean hasEvent = false;
-                    List<CalendarEvent> events = getOfficialEventsForDay(islamicDate);
-                    for (CalendarEvent event: events) {
-                        if (event.getType().equals("Afghanistan") && mHighlightAfghanistanEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Iran") && mHighlightIranEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Ancient Iran") && mHighlightAncientEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Islamic Iran") && mHighlightIslamicEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Islamic Afghanistan") && mHighlightIslamicEvents && mHighlightAfghanistanEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Gregorian") && mHighlightGregorianEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                        else if (event.getType().equals("Ad") && mHighlightAdEvents) {
-                            hasEvent = true;
-                            break;
-                        }
-                    }
-                    day.setEvent(hasEvent);
-                }
+    /**
+     * The index to look up the local events of the given Islamic month in.
+     */
+    public EventIndex getLocalIndex(int year, int month) {
+        return mEngine.getLocalIndex(year, month);
+    }
 
-                day.setIslamicDate(islamicDate.clone());
+    public MonthCache getMonthCache() {
+        return mEngine.getMonthCache();
+    }
 
-                if (islamicDate.equals(today)) {
-                    day.setToday(true);
-                }
+    /**
+     * Sets how many computed months are kept around for swiping back and forth.
+     */
+    public LunarCalendarHandler setMonthCacheSize(int monthCacheSize) {
+        mEngine.getMonthCache().setMaxSize(monthCacheSize);
+        return this;
+    }
 
-                days.add(day);
-                dayOfWeek++;
-                if (dayOfWeek == 7) {
-                    dayOfWeek = 0;
-                }
-            }
-        } catch (DayOutOfRangeException e) {
-        }
+    public CalendarMetricsListener getMetricsListener() {
+        return mEngine.getMetricsListener();
+    }
 
-        return days;
+    /**
+     * Reports timings and counters of the calendar to the listener: events catalog load, month
+     * cache lookups and builds, month page and day cell binds and the first frame after a swipe.
+     * Nothing is timed while no listener is set. The same spans show up as trace sections, see
+     * {@link #TRACE_GET_DAYS}.
+     *
+     * @param metricsListener The listener, or null to stop reporting
+     */
+    public LunarCalendarHandler setMetricsListener(CalendarMetricsListener metricsListener) {
+        mEngine.setMetricsListener(metricsListener);
+        return this;
     }
 
     public boolean isIranTime() {
@@ -492,10 +593,13 @@ public class LunarCalendarHandler {
 
     public LunarCalendarHandler setIranTime(boolean iranTime) {
         mIranTime = iranTime;
+        mTodayCache.setTimeZone(iranTime ? IRAN_TIME_ZONE : null);
+        invalidateMonthLoads();
         return this;
     }
 
     public Typeface getTypeface() {
+        initTypeface();
         return mTypeface;
     }
 
@@ -504,6 +608,33 @@ public class LunarCalendarHandler {
         return this;
     }
 
+    public boolean isDrawingMonthsOnCanvas() {
+        return mDrawMonthsOnCanvas;
+    }
+
+    /**
+     * Month pages are drawn by a single {@link com.gearback.zt.lunarcalendar.core.views.MonthGridView}
+     * by default. Turning this off goes back to a grid of {@code item_day} layouts, e.g. for apps
+     * that override that layout.
+     */
+    public LunarCalendarHandler setDrawMonthsOnCanvas(boolean drawMonthsOnCanvas) {
+        mDrawMonthsOnCanvas = drawMonthsOnCanvas;
+        return this;
+    }
+
+    public boolean isRecyclingMonthPages() {
+        return mRecycleMonthPages && mDrawMonthsOnCanvas;
+    }
+
+    /**
+     * When months are drawn on canvas, the pager recycles month views instead of creating a
+     * fragment per month. Turning this off goes back to one fragment per month page.
+     */
+    public LunarCalendarHandler setRecycleMonthPages(boolean recycleMonthPages) {
+        mRecycleMonthPages = recycleMonthPages;
+        return this;
+    }
+
     public int getColorBackground() {
         return mColorBackground;
     }
@@ -567,6 +698,51 @@ public class LunarCalendarHandler {
         return this;
     }
 
+    /**
+     * Colors the event dot of days with official events of the given type. The other days keep
+     * the color of their number.
+     *
+     * @param type One of the {@link EventTypes} bits
+     * @throws IllegalArgumentException When the type is not a single {@link EventTypes} bit
+     */
+    public LunarCalendarHandler setEventTypeColor(int type, int color) {
+        checkEventType(type);
+        mEventTypeColors[EventTypes.indexOf(type)] = color;
+        mColoredEventTypes |= type;
+        return this;
+    }
+
+    /**
+     * Stops coloring the event dots of the given type.
+     *
+     * @throws IllegalArgumentException When the type is not a single {@link EventTypes} bit
+     */
+    public LunarCalendarHandler clearEventTypeColor(int type) {
+        checkEventType(type);
+        mColoredEventTypes &= ~type;
+        return this;
+    }
+
+    private static void checkEventType(int type) {
+        if (Integer.bitCount(type) != 1 || (type & EventTypes.ALL) == 0) {
+            throw new IllegalArgumentException("Not a single event type: " + Integer.toHexString(type));
+        }
+    }
+
+    /**
+     * @param eventTypes   The highlighted event types of a day, see
+     *                     {@link com.gearback.zt.lunarcalendar.core.models.LunarDay#getEventTypes(Day)}
+     * @param defaultColor The color to use when none of the types has its own color
+     * @return The color of the event dot, that of the lowest colored type when several are
+     */
+    public int getEventDotColor(int eventTypes, int defaultColor) {
+        int colored = eventTypes & mColoredEventTypes;
+        if (colored == 0) {
+            return defaultColor;
+        }
+        return mEventTypeColors[EventTypes.indexOf(colored)];
+    }
+
     public float getDaysFontSize() {
         return mDaysFontSize;
     }
@@ -585,38 +761,166 @@ public class LunarCalendarHandler {
         return this;
     }
 
+    /**
+     * With a {@link #setLocalEventStore(LocalEventStore) store} set, this reads every stored event
+     * into a new list.
+     */
     public List<CalendarEvent> getLocalEvents() {
-        return mLocalEvents;
+        return mEngine.getLocalEvents();
     }
 
     public List<CalendarEvent> getLocalEventsForDay(IslamicDate day){
-        return getEventsForDay(day,mLocalEvents);
+        return mEngine.getLocalEventsForDay(day);
+    }
+
+    public LocalEventStore getLocalEventStore() {
+        return mLocalEventStore;
+    }
+
+    /**
+     * Keeps the local events in the given store instead of in memory: they persist across
+     * processes and only the months being shown are loaded. While a store is set, the events
+     * added before are not shown, and events are removed and updated by value instead of by
+     * identity.
+     *
+     * @param localEventStore The store, or null to go back to the events kept in memory
+     */
+    public LunarCalendarHandler setLocalEventStore(LocalEventStore localEventStore) {
+        mLocalEventStore = localEventStore;
+        mEngine.setLocalEventStorage(localEventStore);
+        onAllLocalEventsChanged();
+        return this;
+    }
+
+    /**
+     * Adds an event and refreshes the months showing it. Unlike
+     * {@link com.gearback.zt.lunarcalendar.LunarCalendarView#update()}, the other month pages are left alone.
+     */
+    public void addLocalEvent(CalendarEvent event) {
+        mEngine.addLocalEvent(event);
+        onLocalEventsChanged(event, null);
+    }
+
+    /**
+     * Adds many events at once: they are indexed together and the month pages are refreshed once
+     * at the end. Can be called from a background thread; the new events show up all at once, and
+     * the calendar keeps using the previous ones until they are indexed.
+     */
+    public void addLocalEvents(Collection<CalendarEvent> events) {
+        mEngine.addLocalEvents(events);
+        onAllLocalEventsChanged();
+    }
+
+    /**
+     * Replaces all the local events, the same way {@link #addLocalEvents(Collection)} adds them.
+     */
+    public void replaceLocalEvents(Collection<CalendarEvent> events) {
+        mEngine.replaceLocalEvents(events);
+        onAllLocalEventsChanged();
+    }
+
+    /**
+     * Removes the event, compared by identity, and refreshes the months it was showing in.
+     *
+     * @return Whether the event was one of the local events
+     */
+    public boolean removeLocalEvent(CalendarEvent event) {
+        if (!mEngine.removeLocalEvent(event)) {
+            return false;
+        }
+        onLocalEventsChanged(event, null);
+        return true;
+    }
+
+    /**
+     * Replaces an event, compared by identity, keeping its place among the local events. Both the
+     * months of the old event and of the new one are refreshed.
+     *
+     * @return Whether the old event was one of the local events
+     */
+    public boolean updateLocalEvent(CalendarEvent oldEvent, CalendarEvent newEvent) {
+        if (!mEngine.updateLocalEvent(oldEvent, newEvent)) {
+            return false;
+        }
+        onLocalEventsChanged(oldEvent, newEvent);
+        return true;
+    }
+
+    public MonthLoader getMonthLoader() {
+        if (mMonthLoader == null) {
+            mMonthLoader = new MonthLoader(this);
+        }
+        return mMonthLoader;
     }
 
-    private List<CalendarEvent> getEventsForDay(IslamicDate day, List<CalendarEvent> events){
-        List<CalendarEvent> result = new ArrayList<>();
-        for (CalendarEvent calendarEvent : events) {
-            if (calendarEvent.getIslamicDate() != null) {
-                if (calendarEvent.getIslamicDate().equals(day)) {
-                    result.add(calendarEvent);
+    public MonthPageDispatcher getMonthPageDispatcher() {
+        if (mMonthPageDispatcher == null) {
+            mMonthPageDispatcher = new MonthPageDispatcher();
+        }
+        return mMonthPageDispatcher;
+    }
+
+    /**
+     * Replaces the dispatcher month pages register with, e.g. by one counting registrations.
+     * Pages already registered stay with the previous one.
+     */
+    @VisibleForTesting
+    public LunarCalendarHandler setMonthPageDispatcher(MonthPageDispatcher monthPageDispatcher) {
+        mMonthPageDispatcher = monthPageDispatcher;
+        return this;
+    }
+
+    /**
+     * Reloads the month pages showing the events. The engine already dropped their cached months.
+     */
+    private void onLocalEventsChanged(final CalendarEvent event, final CalendarEvent otherEvent) {
+        invalidateMonthLoads();
+
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mMonthPageDispatcher == null) {
+                    return;
                 }
-            }
-            if (calendarEvent.getCivilDate() != null) {
-                if (calendarEvent.getCivilDate().equals(DateConverter.islamicToCivil(day))) {
-                    result.add(calendarEvent);
+                for (int offset : mMonthPageDispatcher.getRegisteredOffsets()) {
+                    IslamicDate month = getMonthStart(offset);
+                    if (mEngine.containsEvent(month.getYear(), month.getMonth(), event)
+                            || otherEvent != null && mEngine.containsEvent(month.getYear(), month.getMonth(), otherEvent)) {
+                        mMonthPageDispatcher.dispatchEventsUpdated(offset);
+                    }
                 }
             }
-            if (calendarEvent.getPersianDate() != null) {
-                if (calendarEvent.getPersianDate().equals(DateConverter.islamicToPersian(day))) {
-                    result.add(calendarEvent);
+        });
+    }
+
+    /**
+     * Reloads every month page, for changes too large to work out month by month.
+     */
+    private void onAllLocalEventsChanged() {
+        invalidateMonthLoads();
+
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mMonthPageDispatcher != null) {
+                    mMonthPageDispatcher.dispatchEventsUpdated();
                 }
             }
+        });
+    }
+
+    private void runOnMainThread(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            new Handler(Looper.getMainLooper()).post(runnable);
         }
-        return result;
     }
 
-    public void addLocalEvent(CalendarEvent event) {
-        mLocalEvents.add(event);
+    private void invalidateMonthLoads() {
+        if (mMonthLoader != null) {
+            mMonthLoader.invalidate();
+        }
     }
 
     public LunarCalendarHandler setOnDayClickedListener(OnDayClickedListener onDayClickedListener) {
@@ -673,6 +977,7 @@ public class LunarCalendarHandler {
     }
 
     public Typeface getHeadersTypeface() {
+        initTypeface();
         return mHeadersTypeface;
     }
 
@@ -682,12 +987,6 @@ public class LunarCalendarHandler {
     }
 
     public int getMonthLength(int year, int month) {
-        IslamicDate date = new IslamicDate(year, month, 1);
-        if (date.isLeapYear() && month == 12) {
-            return lunarDaysInMonth.get(month - 1) + 1;
-        }
-        else {
-            return lunarDaysInMonth.get(month - 1);
-        }
+        return mEngine.getMonthLength(year, month);
     }
 }
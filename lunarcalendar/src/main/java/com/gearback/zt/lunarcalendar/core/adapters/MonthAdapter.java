@@ -11,40 +11,84 @@ import android.widget.TextView;
 
 import java.util.List;
 
-import com.gearback.zt.calendarcore.core.Constants;
 import com.gearback.zt.calendarcore.core.models.Day;
 import com.gearback.zt.lunarcalendar.R;
+import com.gearback.zt.lunarcalendar.core.CalendarMetricsListener;
 import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
 import com.gearback.zt.lunarcalendar.core.fragments.MonthFragment;
+import com.gearback.zt.lunarcalendar.core.helpers.DayTextCache;
+import com.gearback.zt.lunarcalendar.core.models.LunarDay;
 
 public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder> {
     private Context mContext;
     private MonthFragment mMonthFragment;
     private final int TYPE_HEADER = 0;
     private final int TYPE_DAY = 1;
+    private static final Object PAYLOAD_SELECTION = new Object();
     private List<Day> mDays;
     private int mSelectedDay = -1;
+    private int mPendingSelectedDay = -1;
     private LunarCalendarHandler mCalendarHandler;
-    private final int mFirstDayOfWeek;
-    private final int mTotalDays;
+    private int mFirstDayOfWeek;
+    private int mTotalDays;
 
+    /**
+     * @param days Days of the month, or an empty list to show a placeholder grid until
+     *             {@link #setDays(List)} is called
+     */
     public MonthAdapter(Context context, MonthFragment monthFragment, List<Day> days) {
-        mFirstDayOfWeek = days.get(0).getDayOfWeek();
-        mTotalDays = days.size();
         this.mMonthFragment = monthFragment;
         this.mContext = context;
-        this.mDays = days;
         mCalendarHandler = LunarCalendarHandler.getInstance(context);
+        setDays(days);
     }
 
-    public void clearSelectedDay() {
-        mSelectedDay = -1;
+    public void setDays(List<Day> days) {
+        mDays = days;
+        mTotalDays = days.size();
+        mFirstDayOfWeek = days.isEmpty() ? 0 : days.get(0).getDayOfWeek();
+        if (mPendingSelectedDay != -1 && !days.isEmpty()) {
+            mSelectedDay = mPendingSelectedDay + 6 + mFirstDayOfWeek;
+            mPendingSelectedDay = -1;
+        }
         notifyDataSetChanged();
     }
 
+    public void clearSelectedDay() {
+        mPendingSelectedDay = -1;
+        setSelectedDay(-1);
+    }
+
     public void selectDay(int dayOfMonth) {
-        mSelectedDay = dayOfMonth + 6 + mFirstDayOfWeek;
-        notifyDataSetChanged();
+        if (mDays.isEmpty()) {
+            mPendingSelectedDay = dayOfMonth;
+            return;
+        }
+        setSelectedDay(dayOfMonth + 6 + mFirstDayOfWeek);
+    }
+
+    /**
+     * Moves the selection, rebinding only the cells that were and are now selected.
+     */
+    private void setSelectedDay(int selectedDay) {
+        int oldSelectedDay = mSelectedDay;
+        mSelectedDay = selectedDay;
+        if (oldSelectedDay == selectedDay) {
+            return;
+        }
+        if (oldSelectedDay != -1) {
+            notifyItemChanged(toAdapterPosition(oldSelectedDay), PAYLOAD_SELECTION);
+        }
+        if (selectedDay != -1) {
+            notifyItemChanged(toAdapterPosition(selectedDay), PAYLOAD_SELECTION);
+        }
+    }
+
+    /**
+     * Maps between adapter positions and right to left grid positions, both ways.
+     */
+    private static int toAdapterPosition(int position) {
+        return position + 6 - (position % 7) * 2;
     }
 
     public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener, View.OnLongClickListener {
@@ -80,8 +124,7 @@ public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder>
                         .get(position - 7 - mFirstDayOfWeek)
                         .getIslamicDate());
 
-                mSelectedDay = position;
-                notifyDataSetChanged();
+                setSelectedDay(position);
             }
         }
 
@@ -113,6 +156,29 @@ public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder>
         return new ViewHolder(v);
     }
 
+    @Override
+    public void onBindViewHolder(MonthAdapter.ViewHolder holder, int position, List<Object> payloads) {
+        CalendarMetricsListener metrics = mCalendarHandler.getMetricsListener();
+        if (metrics != null) {
+            metrics.onDayCellBound();
+        }
+        if (payloads.isEmpty() || mDays.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        position = toAdapterPosition(position);
+        int index = position - 7 - mFirstDayOfWeek;
+        if (index >= 0 && index < mTotalDays) {
+            bindSelection(holder, mDays.get(index), position == mSelectedDay);
+        }
+    }
+
     @Override
     public void onBindViewHolder(MonthAdapter.ViewHolder holder, int position) {
         holder.mToday.setBackgroundResource(mCalendarHandler.getTodayBackground());
@@ -121,26 +187,23 @@ public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder>
         holder.mEvent.setVisibility(View.GONE);
         holder.mDot.setVisibility(View.GONE);
         position += 6 - (position % 7) * 2;
+        if (mDays.isEmpty() && !isPositionHeader(position)) {
+            holder.mToday.setVisibility(View.GONE);
+            holder.mSelectDay.setVisibility(View.GONE);
+            holder.mNum.setVisibility(View.GONE);
+            return;
+        }
         if (mTotalDays < position - 6 - mFirstDayOfWeek) {
             return;
         }
         if (!isPositionHeader(position)) {
             if (position - 7 - mFirstDayOfWeek >= 0) {
-                holder.mNum.setText(mDays.get(position - 7 - mDays.get(0).getDayOfWeek()).getNum());
+                DayTextCache.Texts texts = mCalendarHandler.getDayTexts();
+                holder.mNum.setText(texts.getNumber(position - 6 - mFirstDayOfWeek));
                 holder.mNum.setVisibility(View.VISIBLE);
 
-                holder.mNum.setTextSize(TypedValue.COMPLEX_UNIT_PX, mCalendarHandler.getDaysFontSize());
-
-                if (mDays.get(position - 7 - mFirstDayOfWeek).isHoliday()) {
-                    holder.mNum.setTextColor(mCalendarHandler.getColorHoliday());
-                    holder.mEvent.setBackgroundColor(mCalendarHandler.getColorHoliday());
-                    holder.mDot.setTextColor(mCalendarHandler.getColorHoliday());
-                }
-                else {
-                    holder.mNum.setTextColor(mCalendarHandler.getColorNormalDay());
-                    holder.mEvent.setBackgroundColor(mCalendarHandler.getColorNormalDay());
-                    holder.mDot.setTextColor(mCalendarHandler.getColorNormalDay());
-                }
+                holder.mNum.setTextSize(TypedValue.COMPLEX_UNIT_PX, texts.getTextSize());
+                holder.mNum.setTypeface(texts.getTypeface());
 
                 Day day = mDays.get(position - 7 - mFirstDayOfWeek);
                 if (day.isEvent() && mCalendarHandler.isHighlightingOfficialEvents()) {
@@ -164,23 +227,7 @@ public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder>
                     holder.mToday.setVisibility(View.GONE);
                 }
 
-                if (position == mSelectedDay) {
-                    holder.mSelectDay.setVisibility(View.VISIBLE);
-                    if (mDays.get(position - 7 - mFirstDayOfWeek).isHoliday()) {
-                        holder.mNum.setTextColor(mCalendarHandler.getColorHoliday());
-                        holder.mEvent.setBackgroundColor(mCalendarHandler.getColorHoliday());
-                        holder.mDot.setTextColor(mCalendarHandler.getColorHoliday());
-                    }
-                    else {
-                        holder.mNum.setTextColor(mCalendarHandler.getColorBackground());
-                        holder.mEvent.setBackgroundColor(mCalendarHandler.getColorBackground());
-                        holder.mDot.setTextColor(mCalendarHandler.getColorBackground());
-                    }
-                }
-                else {
-                    holder.mSelectDay.setVisibility(View.GONE);
-                }
-
+                bindSelection(holder, day, position == mSelectedDay);
             }
             else {
                 holder.mToday.setVisibility(View.GONE);
@@ -189,24 +236,44 @@ public class MonthAdapter extends RecyclerView.Adapter<MonthAdapter.ViewHolder>
                 holder.mEvent.setVisibility(View.GONE);
                 holder.mDot.setVisibility(View.GONE);
             }
-            mCalendarHandler.setFontAndShape(holder.mNum);
         }
         else {
-            holder.mNum.setText(Constants.FIRST_CHAR_OF_DAYS_OF_WEEK_NAME[position]);
+            DayTextCache.Texts texts = mCalendarHandler.getHeaderTexts();
+            holder.mNum.setText(texts.getHeader(position));
             holder.mNum.setTextColor(mCalendarHandler.getColorDayName());
             holder.mEvent.setBackgroundColor(mCalendarHandler.getColorDayName());
             holder.mDot.setTextColor(mCalendarHandler.getColorDayName());
-            holder.mNum.setTextSize(TypedValue.COMPLEX_UNIT_PX, mCalendarHandler.getHeadersFontSize());
-            holder.mNum.setTypeface(mCalendarHandler.getHeadersTypeface());
+            holder.mNum.setTextSize(TypedValue.COMPLEX_UNIT_PX, texts.getTextSize());
+            holder.mNum.setTypeface(texts.getTypeface());
             holder.mToday.setVisibility(View.GONE);
             holder.mSelectDay.setVisibility(View.GONE);
             holder.mEvent.setVisibility(View.GONE);
             holder.mDot.setVisibility(View.GONE);
             holder.mNum.setVisibility(View.VISIBLE);
-            mCalendarHandler.setFont(holder.mNum);
         }
     }
 
+    /**
+     * Binds the parts of a day cell that depend on the selection: the selection background and
+     * the colors.
+     */
+    private void bindSelection(MonthAdapter.ViewHolder holder, Day day, boolean selected) {
+        int color;
+        if (day.isHoliday()) {
+            color = mCalendarHandler.getColorHoliday();
+        }
+        else if (selected) {
+            color = mCalendarHandler.getColorBackground();
+        }
+        else {
+            color = mCalendarHandler.getColorNormalDay();
+        }
+        holder.mSelectDay.setVisibility(selected ? View.VISIBLE : View.GONE);
+        holder.mNum.setTextColor(color);
+        holder.mEvent.setBackgroundColor(color);
+        holder.mDot.setTextColor(mCalendarHandler.getEventDotColor(LunarDay.getEventTypes(day), color));
+    }
+
     @Override
     public int getItemCount() {
         return 7 * 7;
@@ -0,0 +1,141 @@
+package com.gearback.zt.lunarcalendar.core.adapters;
+
+import android.content.Context;
+import android.support.v4.os.TraceCompat;
+import android.support.v4.view.PagerAdapter;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.Constants;
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.lunarcalendar.core.CalendarMetricsListener;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthLoader;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthPageDispatcher;
+import com.gearback.zt.lunarcalendar.core.views.MonthGridView;
+
+/**
+ * Month pager adapter working on plain views: pages leaving the pager are kept and bound to the
+ * next month coming in, so swiping creates no fragments, bundles or views once the pager has
+ * filled up.
+ */
+public class MonthPagerAdapter extends PagerAdapter {
+    private final Context mContext;
+    private final LunarCalendarHandler mCalendarHandler;
+    private final ArrayDeque<MonthPage> mRecycledPages = new ArrayDeque<>();
+
+    private final MonthGridView.OnDayClickListener mOnDayClickListener = new MonthGridView.OnDayClickListener() {
+        @Override
+        public void onDayClick(Day day) {
+            if (mCalendarHandler.getOnDayClickedListener() != null)
+                mCalendarHandler.getOnDayClickedListener().onIslamicClick(day.getIslamicDate());
+        }
+
+        @Override
+        public void onDayLongClick(Day day) {
+            if (mCalendarHandler.getOnDayLongClickedListener() != null)
+                mCalendarHandler.getOnDayLongClickedListener().onIslamicLongClick(day.getIslamicDate());
+        }
+    };
+
+    public MonthPagerAdapter(Context context) {
+        mContext = context;
+        mCalendarHandler = LunarCalendarHandler.getInstance(context);
+    }
+
+    private class MonthPage implements MonthLoader.Callback, MonthPageDispatcher.OnMonthPageListener {
+        final MonthGridView mView;
+        int mOffset;
+
+        MonthPage() {
+            mView = new MonthGridView(mContext);
+            mView.setOnDayClickListener(mOnDayClickListener);
+        }
+
+        void bind(int offset) {
+            mOffset = offset;
+            mView.clearSelectedDay();
+            mView.setDays(Collections.<Day>emptyList());
+            mCalendarHandler.getMonthLoader().load(offset, this);
+            mCalendarHandler.getMonthPageDispatcher().register(offset, this);
+        }
+
+        void unbind() {
+            mCalendarHandler.getMonthPageDispatcher().unregister(mOffset, this);
+            mCalendarHandler.getMonthLoader().cancel(this);
+        }
+
+        @Override
+        public void onMonthLoaded(int offset, List<Day> days) {
+            if (offset != mOffset) {
+                return;
+            }
+            CalendarMetricsListener metrics = mCalendarHandler.getMetricsListener();
+            long start = metrics != null ? System.nanoTime() : 0;
+            TraceCompat.beginSection(LunarCalendarHandler.TRACE_BIND_MONTH_PAGE);
+            mView.setDays(days);
+            TraceCompat.endSection();
+            if (metrics != null) {
+                metrics.onMonthPageBound(offset, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void onMonthPageSelected() {
+            if (mCalendarHandler.getOnMonthChangedListener() != null)
+                mCalendarHandler.getOnMonthChangedListener().onIslamicChanged(mCalendarHandler.getMonthStart(mOffset));
+        }
+
+        @Override
+        public void onDaySelected(int dayOfMonth) {
+            mView.selectDay(dayOfMonth);
+        }
+
+        @Override
+        public void onSelectionCleared() {
+            mView.clearSelectedDay();
+        }
+
+        @Override
+        public void onEventsUpdated() {
+            mCalendarHandler.getMonthLoader().load(mOffset, this);
+        }
+    }
+
+    public static int getOffset(int position) {
+        return position - Constants.MONTHS_LIMIT / 2;
+    }
+
+    @Override
+    public Object instantiateItem(ViewGroup container, int position) {
+        MonthPage page = mRecycledPages.poll();
+        if (page == null) {
+            page = new MonthPage();
+        }
+        page.bind(getOffset(position));
+        container.addView(page.mView);
+        return page;
+    }
+
+    @Override
+    public void destroyItem(ViewGroup container, int position, Object object) {
+        MonthPage page = (MonthPage) object;
+        container.removeView(page.mView);
+        page.unbind();
+        mRecycledPages.push(page);
+    }
+
+    @Override
+    public boolean isViewFromObject(View view, Object object) {
+        return ((MonthPage) object).mView == view;
+    }
+
+    @Override
+    public int getCount() {
+        return Constants.MONTHS_LIMIT;
+    }
+}
@@ -7,11 +7,11 @@ import android.os.Bundle;
 import android.provider.CalendarContract;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
-import android.support.v4.content.LocalBroadcastManager;
 import android.support.v4.view.ViewPager;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 
 import java.util.Calendar;
 
@@ -21,13 +21,30 @@ import com.gearback.zt.calendarcore.core.models.CivilDate;
 import com.gearback.zt.calendarcore.core.models.IslamicDate;
 import com.gearback.zt.calendarcore.helpers.DateConverter;
 import com.gearback.zt.lunarcalendar.R;
+import com.gearback.zt.lunarcalendar.core.CalendarMetricsListener;
 import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
 import com.gearback.zt.lunarcalendar.core.adapters.CalendarAdapter;
+import com.gearback.zt.lunarcalendar.core.adapters.MonthPagerAdapter;
 
 public class CalendarFragment extends Fragment implements ViewPager.OnPageChangeListener {
     private ViewPager mMonthViewPager;
     private LunarCalendarHandler mLunarCalendarHandler;
     private int mViewPagerPosition;
+    private long mPageSelectedNanos;
+
+    private final ViewTreeObserver.OnDrawListener mOnDrawListener = new ViewTreeObserver.OnDrawListener() {
+        @Override
+        public void onDraw() {
+            if (mPageSelectedNanos == 0) {
+                return;
+            }
+            CalendarMetricsListener metrics = mLunarCalendarHandler.getMetricsListener();
+            if (metrics != null) {
+                metrics.onFirstFrameAfterSwipe(mViewPagerPosition, System.nanoTime() - mPageSelectedNanos);
+            }
+            mPageSelectedNanos = 0;
+        }
+    };
 
     @Nullable
     @Override
@@ -48,14 +65,25 @@ public class CalendarFragment extends Fragment implements ViewPager.OnPageChange
         });
 
         createViewPagers();
+        mMonthViewPager.addOnPageChangeListener(this);
+        mMonthViewPager.getViewTreeObserver().addOnDrawListener(mOnDrawListener);
         return view;
     }
 
+    @Override
+    public void onDestroyView() {
+        mMonthViewPager.getViewTreeObserver().removeOnDrawListener(mOnDrawListener);
+        super.onDestroyView();
+    }
+
     private void createViewPagers() {
-        mMonthViewPager.setAdapter(new CalendarAdapter(getChildFragmentManager()));
+        if (mLunarCalendarHandler.isRecyclingMonthPages()) {
+            mMonthViewPager.setAdapter(new MonthPagerAdapter(getContext()));
+        } else {
+            mMonthViewPager.setAdapter(new CalendarAdapter(getChildFragmentManager()));
+        }
         mMonthViewPager.setCurrentItem(Constants.MONTHS_LIMIT / 2);
-
-        mMonthViewPager.addOnPageChangeListener(this);
+        mLunarCalendarHandler.getMonthLoader().prefetchAround(0);
     }
 
     public void changeMonth(int position) {
@@ -85,12 +113,7 @@ public class CalendarFragment extends Fragment implements ViewPager.OnPageChange
     }
 
     private void bringTodayYearMonth() {
-        Intent intent = new Intent(Constants.BROADCAST_INTENT_TO_MONTH_FRAGMENT);
-        intent.putExtra(Constants.BROADCAST_FIELD_TO_MONTH_FRAGMENT,
-                Constants.BROADCAST_TO_MONTH_FRAGMENT_RESET_DAY);
-        intent.putExtra(Constants.BROADCAST_FIELD_SELECT_DAY, -1);
-
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+        mLunarCalendarHandler.getMonthPageDispatcher().dispatchSelectionCleared();
 
         if (mMonthViewPager.getCurrentItem() != Constants.MONTHS_LIMIT / 2) {
             mMonthViewPager.setCurrentItem(Constants.MONTHS_LIMIT / 2, false);
@@ -98,16 +121,24 @@ public class CalendarFragment extends Fragment implements ViewPager.OnPageChange
     }
 
     public void bringDate(IslamicDate date) {
-        IslamicDate today = mLunarCalendarHandler.getToday();
-        mViewPagerPosition = (today.getYear() - date.getYear()) * 12 + today.getMonth() - date.getMonth();
-
-        mMonthViewPager.setCurrentItem(mViewPagerPosition + Constants.MONTHS_LIMIT / 2, false);
-
-        Intent intent = new Intent(Constants.BROADCAST_INTENT_TO_MONTH_FRAGMENT);
-        intent.putExtra(Constants.BROADCAST_FIELD_TO_MONTH_FRAGMENT, mViewPagerPosition);
-        intent.putExtra(Constants.BROADCAST_FIELD_SELECT_DAY, date.getDayOfMonth());
+        bringMonth(date.getYear(), date.getMonth());
+        mLunarCalendarHandler.getMonthPageDispatcher().dispatchDaySelected(mViewPagerPosition, date.getDayOfMonth());
+    }
 
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+    /**
+     * Shows the month without selecting any of its days.
+     */
+    public void bringMonth(int year, int month) {
+        IslamicDate today = mLunarCalendarHandler.getToday();
+        mViewPagerPosition = (today.getYear() - year) * 12 + today.getMonth() - month;
+
+        int position = mViewPagerPosition + Constants.MONTHS_LIMIT / 2;
+        if (mMonthViewPager.getCurrentItem() == position) {
+            mLunarCalendarHandler.getMonthPageDispatcher().dispatchPageSelected(mViewPagerPosition);
+        } else {
+            // onPageSelected dispatches the page change
+            mMonthViewPager.setCurrentItem(position, false);
+        }
     }
 
     @Override
@@ -117,12 +148,11 @@ public class CalendarFragment extends Fragment implements ViewPager.OnPageChange
     @Override
     public void onPageSelected(int position) {
         mViewPagerPosition = position - Constants.MONTHS_LIMIT / 2;
-
-        Intent intent = new Intent(Constants.BROADCAST_INTENT_TO_MONTH_FRAGMENT);
-        intent.putExtra(Constants.BROADCAST_FIELD_TO_MONTH_FRAGMENT, mViewPagerPosition);
-        intent.putExtra(Constants.BROADCAST_FIELD_SELECT_DAY, -1);
-
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+        if (mLunarCalendarHandler.getMetricsListener() != null) {
+            mPageSelectedNanos = System.nanoTime();
+        }
+        mLunarCalendarHandler.getMonthLoader().prefetchAround(mViewPagerPosition);
+        mLunarCalendarHandler.getMonthPageDispatcher().dispatchPageSelected(mViewPagerPosition);
     }
 
     @Override
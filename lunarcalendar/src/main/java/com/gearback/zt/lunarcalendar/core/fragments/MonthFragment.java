@@ -1,26 +1,27 @@
 package com.gearback.zt.lunarcalendar.core.fragments;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
-import android.support.v4.content.LocalBroadcastManager;
+import android.support.v4.os.TraceCompat;
 import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.gearback.zt.calendarcore.core.Constants;
 import com.gearback.zt.calendarcore.core.models.Day;
 import com.gearback.zt.calendarcore.core.models.IslamicDate;
 import com.gearback.zt.lunarcalendar.R;
+import com.gearback.zt.lunarcalendar.core.CalendarMetricsListener;
 import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
 import com.gearback.zt.lunarcalendar.core.adapters.MonthAdapter;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthLoader;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthPageDispatcher;
+import com.gearback.zt.lunarcalendar.core.views.MonthGridView;
 
 public class MonthFragment extends Fragment {
     private LunarCalendarHandler mLunarCalendarHandler;
@@ -29,72 +30,96 @@ public class MonthFragment extends Fragment {
     private int mOffset;
     private MonthAdapter mMonthAdapter;
     private RecyclerView recyclerView;
+    private MonthGridView mMonthGridView;
 
-    private BroadcastReceiver updateEventsReceiver = new BroadcastReceiver() {
+    private MonthLoader.Callback mMonthLoadedCallback = new MonthLoader.Callback() {
         @Override
-        public void onReceive(Context context, Intent intent) {
-            UpdateMonth();
+        public void onMonthLoaded(int offset, List<Day> days) {
+            CalendarMetricsListener metrics = mLunarCalendarHandler.getMetricsListener();
+            long start = metrics != null ? System.nanoTime() : 0;
+            TraceCompat.beginSection(LunarCalendarHandler.TRACE_BIND_MONTH_PAGE);
+            if (mMonthGridView != null) {
+                mMonthGridView.setDays(days);
+            } else if (mMonthAdapter != null) {
+                mMonthAdapter.setDays(days);
+            }
+            TraceCompat.endSection();
+            if (metrics != null) {
+                metrics.onMonthPageBound(offset, System.nanoTime() - start);
+            }
         }
     };
 
-    private BroadcastReceiver setCurrentMonthReceiver = new BroadcastReceiver() {
+    private MonthGridView.OnDayClickListener mOnDayClickListener = new MonthGridView.OnDayClickListener() {
         @Override
-        public void onReceive(Context context, Intent intent) {
-            int value = intent.getExtras().getInt(Constants.BROADCAST_FIELD_TO_MONTH_FRAGMENT);
-            if (value == mOffset) {
-                if(mLunarCalendarHandler.getOnMonthChangedListener() != null)
-                    mLunarCalendarHandler.getOnMonthChangedListener().onIslamicChanged(islamicDate);
-                int day = intent.getExtras().getInt(Constants.BROADCAST_FIELD_SELECT_DAY);
-                if (day != -1) {
-                    mMonthAdapter.selectDay(day);
-                }
-            } else if (value == Constants.BROADCAST_TO_MONTH_FRAGMENT_RESET_DAY) {
-                mMonthAdapter.clearSelectedDay();
-            }
+        public void onDayClick(Day day) {
+            onClickItem(day.getIslamicDate());
+        }
+
+        @Override
+        public void onDayLongClick(Day day) {
+            onLongClickItem(day.getIslamicDate());
+        }
+    };
+
+    private MonthPageDispatcher.OnMonthPageListener mOnMonthPageListener = new MonthPageDispatcher.OnMonthPageListener() {
+        @Override
+        public void onMonthPageSelected() {
+            if (mLunarCalendarHandler.getOnMonthChangedListener() != null)
+                mLunarCalendarHandler.getOnMonthChangedListener().onIslamicChanged(islamicDate);
+        }
+
+        @Override
+        public void onDaySelected(int dayOfMonth) {
+            selectDay(dayOfMonth);
+        }
+
+        @Override
+        public void onSelectionCleared() {
+            clearSelectedDay();
+        }
+
+        @Override
+        public void onEventsUpdated() {
+            mLunarCalendarHandler.getMonthLoader().load(mOffset, mMonthLoadedCallback);
         }
     };
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         mLunarCalendarHandler = LunarCalendarHandler.getInstance(getContext());
-        View view = inflater.inflate(R.layout.fragment_month, container, false);
-        recyclerView = view.findViewById(R.id.month_recycler);
+        View view;
+        if (mLunarCalendarHandler.isDrawingMonthsOnCanvas()) {
+            mMonthGridView = new MonthGridView(getContext());
+            mMonthGridView.setOnDayClickListener(mOnDayClickListener);
+            view = mMonthGridView;
+        } else {
+            view = inflater.inflate(R.layout.fragment_month, container, false);
+            recyclerView = view.findViewById(R.id.month_recycler);
+        }
         mOffset = getArguments().getInt(Constants.OFFSET_ARGUMENT);
 
         UpdateMonth();
 
-        LocalBroadcastManager.getInstance(getContext()).registerReceiver(setCurrentMonthReceiver, new IntentFilter(Constants.BROADCAST_INTENT_TO_MONTH_FRAGMENT));
-        LocalBroadcastManager.getInstance(getContext()).registerReceiver(updateEventsReceiver, new IntentFilter(Constants.BROADCAST_UPDATE_EVENTS));
+        mLunarCalendarHandler.getMonthPageDispatcher().register(mOffset, mOnMonthPageListener);
 
         return view;
     }
 
     private void UpdateMonth() {
-        List<Day> days = mLunarCalendarHandler.getDays(mOffset);
-
-        islamicDate = mLunarCalendarHandler.getToday();
-        int month = islamicDate.getMonth() - mOffset;
-        month -= 1;
-        int year = islamicDate.getYear();
-
-        year = year + (month / 12);
-        month = month % 12;
-        if (month < 0) {
-            year -= 1;
-            month += 12;
-        }
-
-        month += 1;
-        islamicDate.setMonth(month);
-        islamicDate.setYear(year);
-        islamicDate.setDayOfMonth(1);
+        islamicDate = mLunarCalendarHandler.getMonthStart(mOffset);
 
-        recyclerView.setHasFixedSize(true);
+        if (mMonthGridView != null) {
+            mMonthGridView.setDays(Collections.<Day>emptyList());
+        } else {
+            recyclerView.setHasFixedSize(true);
 
-        RecyclerView.LayoutManager layoutManager = new GridLayoutManager(getContext(), 7);
-        recyclerView.setLayoutManager(layoutManager);
-        mMonthAdapter = new MonthAdapter(getContext(), this, days);
-        recyclerView.setAdapter(mMonthAdapter);
+            RecyclerView.LayoutManager layoutManager = new GridLayoutManager(getContext(), 7);
+            recyclerView.setLayoutManager(layoutManager);
+            mMonthAdapter = new MonthAdapter(getContext(), this, Collections.<Day>emptyList());
+            recyclerView.setAdapter(mMonthAdapter);
+        }
+        mLunarCalendarHandler.getMonthLoader().load(mOffset, mMonthLoadedCallback);
 
         mCalendarFragment = (CalendarFragment) getActivity().getSupportFragmentManager().findFragmentByTag(CalendarFragment.class.getName());
 
@@ -105,10 +130,26 @@ public class MonthFragment extends Fragment {
     }
 
     @Override
-    public void onDestroy() {
-        LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(setCurrentMonthReceiver);
-        LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(updateEventsReceiver);
-        super.onDestroy();
+    public void onDestroyView() {
+        mLunarCalendarHandler.getMonthPageDispatcher().unregister(mOffset, mOnMonthPageListener);
+        mLunarCalendarHandler.getMonthLoader().cancel(mMonthLoadedCallback);
+        super.onDestroyView();
+    }
+
+    private void selectDay(int dayOfMonth) {
+        if (mMonthGridView != null) {
+            mMonthGridView.selectDay(dayOfMonth);
+        } else {
+            mMonthAdapter.selectDay(dayOfMonth);
+        }
+    }
+
+    private void clearSelectedDay() {
+        if (mMonthGridView != null) {
+            mMonthGridView.clearSelectedDay();
+        } else {
+            mMonthAdapter.clearSelectedDay();
+        }
     }
 
     public void onClickItem(IslamicDate day) {
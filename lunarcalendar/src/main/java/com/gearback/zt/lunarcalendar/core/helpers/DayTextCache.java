@@ -0,0 +1,147 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.Constants;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+
+/**
+ * Bounded LRU cache of the texts drawn in day cells: the day numbers and the weekday initials,
+ * shaped and measured once per typeface, font size and digit set. Binding or drawing a cell then
+ * only looks its text up, without formatting, shaping or measuring it again.
+ *
+ * Like the month cache, digit sets and typefaces are compared by identity.
+ */
+public class DayTextCache {
+    public static final int DEFAULT_MAX_SIZE = 6;
+    private static final int MAX_DAY = 31;
+    private static final int WEEK_DAYS = 7;
+
+    /**
+     * The shaped texts for one typeface, font size and digit set, with their widths and the
+     * offset from the center of a cell to their baseline.
+     */
+    public static class Texts {
+        private final Typeface mTypeface;
+        private final float mTextSize;
+        private final String[] mNumbers = new String[MAX_DAY + 1];
+        private final float[] mNumberWidths = new float[MAX_DAY + 1];
+        private final String[] mHeaders = new String[WEEK_DAYS];
+        private final float[] mHeaderWidths = new float[WEEK_DAYS];
+        private final float mTextOffset;
+
+        Texts(LunarCalendarHandler calendarHandler, Typeface typeface, float textSize, char[] digits) {
+            mTypeface = typeface;
+            mTextSize = textSize;
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTypeface(typeface);
+            paint.setTextSize(textSize);
+            NumberFormatter formatter = new NumberFormatter(digits);
+            for (int i = 1; i <= MAX_DAY; i++) {
+                mNumbers[i] = calendarHandler.shape(formatter.format(i));
+                mNumberWidths[i] = paint.measureText(mNumbers[i]);
+            }
+            for (int i = 0; i < WEEK_DAYS; i++) {
+                mHeaders[i] = calendarHandler.shape(Constants.FIRST_CHAR_OF_DAYS_OF_WEEK_NAME[i]);
+                mHeaderWidths[i] = paint.measureText(mHeaders[i]);
+            }
+            mTextOffset = -(paint.descent() + paint.ascent()) / 2;
+        }
+
+        public Typeface getTypeface() {
+            return mTypeface;
+        }
+
+        public float getTextSize() {
+            return mTextSize;
+        }
+
+        public String getNumber(int dayOfMonth) {
+            return mNumbers[dayOfMonth];
+        }
+
+        public float getNumberWidth(int dayOfMonth) {
+            return mNumberWidths[dayOfMonth];
+        }
+
+        /**
+         * @param dayOfWeek The day of week, Saturday being 0
+         */
+        public String getHeader(int dayOfWeek) {
+            return mHeaders[dayOfWeek];
+        }
+
+        public float getHeaderWidth(int dayOfWeek) {
+            return mHeaderWidths[dayOfWeek];
+        }
+
+        /**
+         * @return What to add to the vertical center of a cell to get the baseline that centers
+         * the texts in it
+         */
+        public float getTextOffset() {
+            return mTextOffset;
+        }
+    }
+
+    private static class Key {
+        private final Typeface mTypeface;
+        private final float mTextSize;
+        private final char[] mDigits;
+
+        Key(Typeface typeface, float textSize, char[] digits) {
+            mTypeface = typeface;
+            mTextSize = textSize;
+            mDigits = digits;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mTypeface == key.mTypeface
+                    && mTextSize == key.mTextSize
+                    && mDigits == key.mDigits;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mTypeface);
+            result = 31 * result + Float.floatToIntBits(mTextSize);
+            result = 31 * result + System.identityHashCode(mDigits);
+            return result;
+        }
+    }
+
+    private final LinkedHashMap<Key, Texts> mEntries = new LinkedHashMap<Key, Texts>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Texts> eldest) {
+            return size() > DEFAULT_MAX_SIZE;
+        }
+    };
+    private final LunarCalendarHandler mCalendarHandler;
+
+    public DayTextCache(LunarCalendarHandler calendarHandler) {
+        mCalendarHandler = calendarHandler;
+    }
+
+    public synchronized Texts get(Typeface typeface, float textSize, char[] digits) {
+        Key key = new Key(typeface, textSize, digits);
+        Texts texts = mEntries.get(key);
+        if (texts == null) {
+            texts = new Texts(mCalendarHandler, typeface, textSize, digits);
+            mEntries.put(key, texts);
+        }
+        return texts;
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+}
@@ -0,0 +1,116 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import android.util.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+
+/**
+ * Pull parser for the events catalog. The stream is read once, straight into {@link CalendarEvent}s,
+ * without building the whole document as a String or a JSON tree first.
+ *
+ * The schema is the one of the bundled {@code events.json}: a root object holding the
+ * {@code lunarCalendar}, {@code persianCalendar} and {@code gregorianCalendar} arrays, each item with
+ * {@code month}, {@code day}, {@code title}, {@code description}, {@code type}, {@code holiday}
+ * and {@code obit}. Events are returned lunar first, then persian, then gregorian, whatever the
+ * order of the arrays in the file.
+ */
+public class EventsJsonReader {
+    private static final int LUNAR = 0;
+    private static final int PERSIAN = 1;
+    private static final int GREGORIAN = 2;
+
+    private EventsJsonReader() {
+    }
+
+    public static List<CalendarEvent> read(InputStream is) throws IOException {
+        List<CalendarEvent> lunar = new ArrayList<>();
+        List<CalendarEvent> persian = new ArrayList<>();
+        List<CalendarEvent> gregorian = new ArrayList<>();
+
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(is, "UTF-8")));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("lunarCalendar")) {
+                    readArray(reader, LUNAR, lunar);
+                } else if (name.equals("persianCalendar")) {
+                    readArray(reader, PERSIAN, persian);
+                } else if (name.equals("gregorianCalendar")) {
+                    readArray(reader, GREGORIAN, gregorian);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+
+        List<CalendarEvent> result = new ArrayList<>(lunar.size() + persian.size() + gregorian.size());
+        result.addAll(lunar);
+        result.addAll(persian);
+        result.addAll(gregorian);
+        return result;
+    }
+
+    private static void readArray(JsonReader reader, int calendar, List<CalendarEvent> result) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(readEvent(reader, calendar));
+        }
+        reader.endArray();
+    }
+
+    private static CalendarEvent readEvent(JsonReader reader, int calendar) throws IOException {
+        int month = 0;
+        int day = 0;
+        String title = null;
+        String desc = null;
+        String type = null;
+        boolean holiday = false;
+        boolean obit = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("month")) {
+                month = reader.nextInt();
+            } else if (name.equals("day")) {
+                day = reader.nextInt();
+            } else if (name.equals("title")) {
+                title = reader.nextString();
+            } else if (name.equals("description")) {
+                desc = reader.nextString();
+            } else if (name.equals("type")) {
+                type = reader.nextString();
+            } else if (name.equals("holiday")) {
+                holiday = reader.nextBoolean();
+            } else if (name.equals("obit")) {
+                obit = reader.nextBoolean();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        switch (calendar) {
+            case LUNAR:
+                return new CalendarEvent(null, null, new IslamicDate(-1, month, day), title, desc, holiday, obit, type);
+            case PERSIAN:
+                return new CalendarEvent(new PersianDate(-1, month, day), null, null, title, desc, holiday, obit, type);
+            default:
+                return new CalendarEvent(null, new CivilDate(-1, month, day), null, title, desc, holiday, obit, type);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gearback.zt.calendarcore.core.models.AbstractDate;
+import com.gearback.zt.calendarcore.core.models.CalendarEvent;
+import com.gearback.zt.calendarcore.core.models.CivilDate;
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.calendarcore.core.models.PersianDate;
+import com.gearback.zt.calendarcore.helpers.DateConverter;
+
+/**
+ * Local events kept in an on-device SQLite database, so they survive the process and only the
+ * months being shown are held in memory.
+ *
+ * Every event is stored with the {@link EventIndex#pack packed} Islamic date it falls on, which
+ * is indexed, so the events of a month are read with two range scans: one for the dated events
+ * and one for the Islamic events recurring each year. Civil and persian events recurring each
+ * year have no fixed Islamic date; they are read along with every month.
+ *
+ * The events of the last few months read are cached, each month with its own {@link EventIndex}.
+ */
+public class LocalEventStore extends SQLiteOpenHelper implements LocalEventStorage {
+    public static final String DATABASE_NAME = "lunar_calendar_events.db";
+    private static final int DATABASE_VERSION = 1;
+    private static final int WINDOW_SIZE = 5;
+
+    private static final String TABLE = "local_events";
+    private static final String COLUMN_ID = "_id";
+    private static final String COLUMN_ISLAMIC_KEY = "islamic_key";
+    private static final String COLUMN_CALENDAR = "calendar";
+    private static final String COLUMN_YEAR = "year";
+    private static final String COLUMN_MONTH = "month";
+    private static final String COLUMN_DAY = "day";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_DESCRIPTION = "description";
+    private static final String COLUMN_HOLIDAY = "holiday";
+    private static final String COLUMN_OBIT = "obit";
+    private static final String COLUMN_TYPE = "type";
+
+    private static final String[] COLUMNS = {
+            COLUMN_CALENDAR, COLUMN_YEAR, COLUMN_MONTH, COLUMN_DAY,
+            COLUMN_TITLE, COLUMN_DESCRIPTION, COLUMN_HOLIDAY, COLUMN_OBIT, COLUMN_TYPE
+    };
+
+    private static final String INSERT = "INSERT INTO " + TABLE + " ("
+            + COLUMN_ISLAMIC_KEY + ", " + COLUMN_CALENDAR + ", " + COLUMN_YEAR + ", "
+            + COLUMN_MONTH + ", " + COLUMN_DAY + ", " + COLUMN_TITLE + ", "
+            + COLUMN_DESCRIPTION + ", " + COLUMN_HOLIDAY + ", " + COLUMN_OBIT + ", "
+            + COLUMN_TYPE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MATCH_EVENT = COLUMN_CALENDAR + " = ? AND " + COLUMN_YEAR + " = ? AND "
+            + COLUMN_MONTH + " = ? AND " + COLUMN_DAY + " = ? AND IFNULL(" + COLUMN_TITLE + ", '') = ? AND IFNULL("
+            + COLUMN_DESCRIPTION + ", '') = ? AND " + COLUMN_HOLIDAY + " = ? AND " + COLUMN_OBIT + " = ? AND IFNULL("
+            + COLUMN_TYPE + ", '') = ?";
+
+    private final Map<Integer, EventIndex> mWindow = new LinkedHashMap<Integer, EventIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, EventIndex> eldest) {
+            return size() > WINDOW_SIZE;
+        }
+    };
+    private int mVersion;
+
+    public LocalEventStore(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    /**
+     * @param name Database file name, or null for a database kept in memory
+     */
+    public LocalEventStore(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_ISLAMIC_KEY + " INTEGER, "
+                + COLUMN_CALENDAR + " INTEGER NOT NULL, "
+                + COLUMN_YEAR + " INTEGER NOT NULL, "
+                + COLUMN_MONTH + " INTEGER NOT NULL, "
+                + COLUMN_DAY + " INTEGER NOT NULL, "
+                + COLUMN_TITLE + " TEXT, "
+                + COLUMN_DESCRIPTION + " TEXT, "
+                + COLUMN_HOLIDAY + " INTEGER NOT NULL, "
+                + COLUMN_OBIT + " INTEGER NOT NULL, "
+                + COLUMN_TYPE + " TEXT)");
+        db.execSQL("CREATE INDEX " + TABLE + "_" + COLUMN_ISLAMIC_KEY
+                + " ON " + TABLE + " (" + COLUMN_ISLAMIC_KEY + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    @Override
+    public EventIndex getMonthIndex(int year, int month) {
+        int windowKey = year * 12 + month;
+        int version;
+        synchronized (mWindow) {
+            EventIndex index = mWindow.get(windowKey);
+            if (index != null) {
+                return index;
+            }
+            version = mVersion;
+        }
+        EventIndex index = new EventIndex(queryMonth(year, month));
+        synchronized (mWindow) {
+            // Not cached if the events changed while the month was being read
+            if (version == mVersion) {
+                mWindow.put(windowKey, index);
+            }
+        }
+        return index;
+    }
+
+    private List<CalendarEvent> queryMonth(int year, int month) {
+        String selection = COLUMN_ISLAMIC_KEY + " BETWEEN ? AND ? OR "
+                + COLUMN_ISLAMIC_KEY + " BETWEEN ? AND ? OR "
+                + COLUMN_ISLAMIC_KEY + " IS NULL";
+        String[] arguments = {
+                String.valueOf(EventIndex.pack(EventIndex.CALENDAR_ISLAMIC, year, month, 1)),
+                String.valueOf(EventIndex.pack(EventIndex.CALENDAR_ISLAMIC, year, month, 30)),
+                String.valueOf(EventIndex.pack(EventIndex.CALENDAR_ISLAMIC, -1, month, 1)),
+                String.valueOf(EventIndex.pack(EventIndex.CALENDAR_ISLAMIC, -1, month, 30))
+        };
+        return query(selection, arguments);
+    }
+
+    @Override
+    public List<CalendarEvent> getEvents() {
+        return query(null, null);
+    }
+
+    private List<CalendarEvent> query(String selection, String[] arguments) {
+        Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS, selection, arguments,
+                null, null, COLUMN_ID);
+        try {
+            List<CalendarEvent> events = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                events.add(readEvent(cursor));
+            }
+            return events;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static CalendarEvent readEvent(Cursor cursor) {
+        int calendar = cursor.getInt(0);
+        int year = cursor.getInt(1);
+        int month = cursor.getInt(2);
+        int day = cursor.getInt(3);
+        String title = cursor.getString(4);
+        String description = cursor.getString(5);
+        boolean holiday = cursor.getInt(6) != 0;
+        boolean obit = cursor.getInt(7) != 0;
+        String type = cursor.getString(8);
+        switch (calendar) {
+            case EventIndex.CALENDAR_CIVIL:
+                return new CalendarEvent(null, new CivilDate(year, month, day), null,
+                        title, description, holiday, obit, type);
+            case EventIndex.CALENDAR_PERSIAN:
+                return new CalendarEvent(new PersianDate(year, month, day), null, null,
+                        title, description, holiday, obit, type);
+            default:
+                return new CalendarEvent(null, null, new IslamicDate(year, month, day),
+                        title, description, holiday, obit, type);
+        }
+    }
+
+    @Override
+    public void add(CalendarEvent event) {
+        SQLiteStatement statement = getWritableDatabase().compileStatement(INSERT);
+        try {
+            insert(statement, event);
+        } finally {
+            statement.close();
+        }
+        invalidate();
+    }
+
+    /**
+     * Adds the events in a single transaction.
+     */
+    @Override
+    public void addAll(Collection<CalendarEvent> events) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            insertAll(db, events);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        invalidate();
+    }
+
+    /**
+     * Replaces every stored event with the given ones in a single transaction.
+     */
+    @Override
+    public void replaceAll(Collection<CalendarEvent> events) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, null, null);
+            insertAll(db, events);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        invalidate();
+    }
+
+    private static void insertAll(SQLiteDatabase db, Collection<CalendarEvent> events) {
+        SQLiteStatement statement = db.compileStatement(INSERT);
+        try {
+            for (CalendarEvent event : events) {
+                insert(statement, event);
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Removes one stored event equal to the given one, field by field.
+     *
+     * @return Whether such an event was stored
+     */
+    @Override
+    public boolean remove(CalendarEvent event) {
+        int count = getWritableDatabase().delete(TABLE, COLUMN_ID + " = (SELECT " + COLUMN_ID
+                + " FROM " + TABLE + " WHERE " + MATCH_EVENT + " LIMIT 1)", matchArguments(event));
+        invalidate();
+        return count > 0;
+    }
+
+    /**
+     * Replaces one stored event equal to the old one with the new one.
+     *
+     * @return Whether the old event was stored
+     */
+    @Override
+    public boolean update(CalendarEvent oldEvent, CalendarEvent newEvent) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            int count = db.delete(TABLE, COLUMN_ID + " = (SELECT " + COLUMN_ID
+                    + " FROM " + TABLE + " WHERE " + MATCH_EVENT + " LIMIT 1)", matchArguments(oldEvent));
+            if (count == 0) {
+                return false;
+            }
+            insertAll(db, Collections.singletonList(newEvent));
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            db.endTransaction();
+            invalidate();
+        }
+    }
+
+    /**
+     * Forgets the cached months, so they are read again from the database.
+     */
+    public void invalidate() {
+        synchronized (mWindow) {
+            mVersion++;
+            mWindow.clear();
+        }
+    }
+
+    private static void insert(SQLiteStatement statement, CalendarEvent event) {
+        int calendar = getCalendar(event);
+        AbstractDate date = getDate(event);
+        Integer islamicKey = getIslamicKey(event);
+        statement.clearBindings();
+        if (islamicKey == null) {
+            statement.bindNull(1);
+        } else {
+            statement.bindLong(1, islamicKey);
+        }
+        statement.bindLong(2, calendar);
+        statement.bindLong(3, date.getYear());
+        statement.bindLong(4, date.getMonth());
+        statement.bindLong(5, date.getDayOfMonth());
+        bindString(statement, 6, event.getTitle());
+        bindString(statement, 7, event.getDescription());
+        statement.bindLong(8, event.isHoliday() ? 1 : 0);
+        statement.bindLong(9, event.isObit() ? 1 : 0);
+        bindString(statement, 10, event.getType());
+        statement.executeInsert();
+    }
+
+    private static void bindString(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    private static String[] matchArguments(CalendarEvent event) {
+        AbstractDate date = getDate(event);
+        return new String[] {
+                String.valueOf(getCalendar(event)),
+                String.valueOf(date.getYear()),
+                String.valueOf(date.getMonth()),
+                String.valueOf(date.getDayOfMonth()),
+                nonNull(event.getTitle()),
+                nonNull(event.getDescription()),
+                event.isHoliday() ? "1" : "0",
+                event.isObit() ? "1" : "0",
+                nonNull(event.getType())
+        };
+    }
+
+    private static String nonNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static int getCalendar(CalendarEvent event) {
+        if (event.getIslamicDate() != null) {
+            return EventIndex.CALENDAR_ISLAMIC;
+        }
+        return event.getCivilDate() != null ? EventIndex.CALENDAR_CIVIL : EventIndex.CALENDAR_PERSIAN;
+    }
+
+    private static AbstractDate getDate(CalendarEvent event) {
+        if (event.getIslamicDate() != null) {
+            return event.getIslamicDate();
+        }
+        return event.getCivilDate() != null ? event.getCivilDate() : event.getPersianDate();
+    }
+
+    /**
+     * The packed Islamic date the event falls on, or null for civil and persian events recurring
+     * each year.
+     */
+    private static Integer getIslamicKey(CalendarEvent event) {
+        IslamicDate islamicDate = event.getIslamicDate();
+        if (islamicDate == null) {
+            AbstractDate date = getDate(event);
+            if (date.getYear() == -1) {
+                return null;
+            }
+            CivilDate civilDate = event.getCivilDate() != null
+                    ? event.getCivilDate()
+                    : DateConverter.persianToCivil(event.getPersianDate());
+            islamicDate = DateConverter.civilToIslamic(civilDate, 0);
+        }
+        return EventIndex.pack(EventIndex.CALENDAR_ISLAMIC,
+                islamicDate.getYear(), islamicDate.getMonth(), islamicDate.getDayOfMonth());
+    }
+}
@@ -0,0 +1,161 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.annotation.VisibleForTesting;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+
+/**
+ * Computes month models off the main thread. Results are delivered on the main thread, and the
+ * months around the page the user is on are prefetched into the handler's month cache so swiping
+ * finds them ready.
+ *
+ * All public methods are meant to be called from the main thread, except {@link #invalidate()}.
+ */
+public class MonthLoader {
+    public interface Callback {
+        void onMonthLoaded(int offset, List<Day> days);
+    }
+
+    private static final int PREFETCH_DISTANCE = 2;
+
+    private final LunarCalendarHandler mCalendarHandler;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "LunarCalendarMonths");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final SparseArray<List<Callback>> mPending = new SparseArray<>();
+    private int mGeneration;
+
+    public MonthLoader(LunarCalendarHandler calendarHandler) {
+        mCalendarHandler = calendarHandler;
+    }
+
+    /**
+     * Delivers the days of the month at the given offset to the callback, right away when they
+     * were already prefetched.
+     */
+    @MainThread
+    public void load(int offset, Callback callback) {
+        List<Day> days = mCalendarHandler.peekDays(offset);
+        if (days != null) {
+            callback.onMonthLoaded(offset, days);
+            return;
+        }
+        enqueue(offset).add(callback);
+    }
+
+    @MainThread
+    public void cancel(Callback callback) {
+        for (int i = 0; i < mPending.size(); i++) {
+            mPending.valueAt(i).remove(callback);
+        }
+    }
+
+    /**
+     * Computes the months within two pages of the given offset in the background.
+     */
+    @MainThread
+    public void prefetchAround(int offset) {
+        for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+            prefetch(offset + distance);
+            prefetch(offset - distance);
+        }
+    }
+
+    /**
+     * @return Whether no month is being computed or waiting to be delivered
+     */
+    @VisibleForTesting
+    @MainThread
+    public boolean isIdle() {
+        return mPending.size() == 0;
+    }
+
+    /**
+     * Months being computed when the events or settings change are computed again once they
+     * finish, so their callbacks do not get outdated days.
+     */
+    public void invalidate() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    invalidate();
+                }
+            });
+            return;
+        }
+        mGeneration++;
+    }
+
+    private void prefetch(int offset) {
+        if (mPending.get(offset) == null && mCalendarHandler.peekDays(offset) == null) {
+            enqueue(offset);
+        }
+    }
+
+    private List<Callback> enqueue(int offset) {
+        List<Callback> waiting = mPending.get(offset);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            mPending.put(offset, waiting);
+            submit(offset);
+        }
+        return waiting;
+    }
+
+    private void submit(final int offset) {
+        final int generation = mGeneration;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<Day> days = mCalendarHandler.getDays(offset);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver(offset, generation, days);
+                    }
+                });
+            }
+        });
+    }
+
+    private void deliver(int offset, int generation, List<Day> days) {
+        if (generation != mGeneration) {
+            submit(offset);
+            return;
+        }
+        List<Callback> waiting = mPending.get(offset);
+        mPending.remove(offset);
+        if (waiting == null) {
+            return;
+        }
+        for (Callback callback : waiting) {
+            callback.onMonthLoaded(offset, days);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.gearback.zt.lunarcalendar.core.helpers;
+
+import android.util.SparseArray;
+
+/**
+ * Delivers pager events straight to the month page showing a given offset, replacing the local
+ * broadcasts every month page used to receive and filter. Pages register while their view exists
+ * and unregister when it goes away.
+ *
+ * A page selection or a selected day aimed at a page that is not registered yet is kept and
+ * delivered when that page registers. Only used from the main thread.
+ */
+public class MonthPageDispatcher {
+    public interface OnMonthPageListener {
+        /**
+         * The page became the current page of the pager.
+         */
+        void onMonthPageSelected();
+
+        void onDaySelected(int dayOfMonth);
+
+        void onSelectionCleared();
+
+        void onEventsUpdated();
+    }
+
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+
+    private final SparseArray<OnMonthPageListener> mListeners = new SparseArray<>();
+    private int mPendingSelectedOffset = NO_OFFSET;
+    private int mSelectedDayOffset = NO_OFFSET;
+    private int mSelectedDay = -1;
+
+    public void register(int offset, OnMonthPageListener listener) {
+        mListeners.put(offset, listener);
+        if (offset == mSelectedDayOffset) {
+            listener.onDaySelected(mSelectedDay);
+        }
+        if (offset == mPendingSelectedOffset) {
+            mPendingSelectedOffset = NO_OFFSET;
+            listener.onMonthPageSelected();
+        }
+    }
+
+    public void unregister(int offset, OnMonthPageListener listener) {
+        if (mListeners.get(offset) == listener) {
+            mListeners.remove(offset);
+        }
+    }
+
+    public void dispatchPageSelected(int offset) {
+        OnMonthPageListener listener = mListeners.get(offset);
+        if (listener == null) {
+            mPendingSelectedOffset = offset;
+        } else {
+            mPendingSelectedOffset = NO_OFFSET;
+            listener.onMonthPageSelected();
+        }
+    }
+
+    public void dispatchDaySelected(int offset, int dayOfMonth) {
+        clearSelectedDay(offset);
+        mSelectedDayOffset = offset;
+        mSelectedDay = dayOfMonth;
+        OnMonthPageListener listener = mListeners.get(offset);
+        if (listener != null) {
+            listener.onDaySelected(dayOfMonth);
+        }
+    }
+
+    public void dispatchSelectionCleared() {
+        mSelectedDayOffset = NO_OFFSET;
+        mSelectedDay = -1;
+        for (int i = 0; i < mListeners.size(); i++) {
+            mListeners.valueAt(i).onSelectionCleared();
+        }
+    }
+
+    public void dispatchEventsUpdated() {
+        for (int i = 0; i < mListeners.size(); i++) {
+            mListeners.valueAt(i).onEventsUpdated();
+        }
+    }
+
+    public void dispatchEventsUpdated(int offset) {
+        OnMonthPageListener listener = mListeners.get(offset);
+        if (listener != null) {
+            listener.onEventsUpdated();
+        }
+    }
+
+    /**
+     * Offsets of the month pages currently alive, in ascending order.
+     */
+    public int[] getRegisteredOffsets() {
+        int[] offsets = new int[mListeners.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = mListeners.keyAt(i);
+        }
+        return offsets;
+    }
+
+    private void clearSelectedDay(int newOffset) {
+        if (mSelectedDayOffset != NO_OFFSET && mSelectedDayOffset != newOffset) {
+            OnMonthPageListener listener = mListeners.get(mSelectedDayOffset);
+            if (listener != null) {
+                listener.onSelectionCleared();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gearback.zt.lunarcalendar.core.views;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Draws the marks under a day number: the local event underline and, below it, the event dot.
+ * Marks are placed from the baseline of the number, so they stay under its digits whatever the
+ * cell and font sizes.
+ */
+class DayMarks {
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float mGap;
+    private final float mUnderlineHeight;
+    private final float mDotRadius;
+
+    DayMarks(float gap, float underlineHeight, float dotRadius) {
+        mGap = gap;
+        mUnderlineHeight = underlineHeight;
+        mDotRadius = dotRadius;
+    }
+
+    /**
+     * @param baseline       The baseline the day number was drawn on
+     * @param underlineWidth The width of the local event underline
+     * @param localEvent     Whether to draw the local event underline, in {@code color}
+     * @param event          Whether to draw the event dot, in {@code eventColor}
+     */
+    void draw(Canvas canvas, float centerX, float baseline, float underlineWidth,
+              boolean localEvent, int color, boolean event, int eventColor) {
+        float top = baseline + mGap;
+        if (localEvent) {
+            mPaint.setColor(color);
+            canvas.drawRect(centerX - underlineWidth / 2, top, centerX + underlineWidth / 2,
+                    top + mUnderlineHeight, mPaint);
+        }
+        if (event) {
+            mPaint.setColor(eventColor);
+            canvas.drawCircle(centerX, top + mUnderlineHeight + mGap + mDotRadius, mDotRadius, mPaint);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.gearback.zt.lunarcalendar.core.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.GestureDetector;
+import android.view.HapticFeedbackConstants;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.gearback.zt.calendarcore.core.models.Day;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+import com.gearback.zt.lunarcalendar.core.helpers.DayTextCache;
+import com.gearback.zt.lunarcalendar.core.models.LunarDay;
+
+/**
+ * Draws a whole month page, weekday header included, in a single view. It replaces the 7x7 grid
+ * of inflated day cells: backgrounds, numbers, event dots and local event underlines are drawn
+ * straight from the month model, and clicks are mapped back to days by position. Each day is
+ * exposed to accessibility services as a virtual view, so days can still be explored and selected
+ * with TalkBack.
+ *
+ * Like the cell grid, columns run right to left starting with Saturday.
+ */
+public class MonthGridView extends View {
+    public interface OnDayClickListener {
+        void onDayClick(Day day);
+
+        void onDayLongClick(Day day);
+    }
+
+    private static final int COLUMNS = 7;
+    private static final int ROWS = 7;
+
+    private final LunarCalendarHandler mCalendarHandler;
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final GestureDetector mGestureDetector;
+    private final DayMarks mDayMarks;
+    private final DayTouchHelper mTouchHelper;
+
+    private List<Day> mDays = Collections.emptyList();
+    private int mFirstDayOfWeek;
+    private int mSelectedDay = -1;
+    private int mTodayBackground;
+    private Drawable mTodayDrawable;
+    private int mSelectedDayBackground;
+    private Drawable mSelectedDrawable;
+    private OnDayClickListener mOnDayClickListener;
+
+    public MonthGridView(Context context) {
+        this(context, null);
+    }
+
+    public MonthGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mCalendarHandler = LunarCalendarHandler.getInstance(context);
+        float markSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics());
+        mDayMarks = new DayMarks(markSize, markSize, markSize);
+        mTouchHelper = new DayTouchHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, mTouchHelper);
+        mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                int index = getDayIndexAt(e.getX(), e.getY());
+                if (index == -1) {
+                    return false;
+                }
+                performClick();
+                clickDay(index);
+                return true;
+            }
+
+            @Override
+            public void onLongPress(MotionEvent e) {
+                int index = getDayIndexAt(e.getX(), e.getY());
+                if (index != -1 && mOnDayClickListener != null) {
+                    performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                    longClickDay(index);
+                }
+            }
+        });
+    }
+
+    public void setOnDayClickListener(OnDayClickListener onDayClickListener) {
+        mOnDayClickListener = onDayClickListener;
+    }
+
+    /**
+     * @param days Days of the month, or an empty list to only show the weekday header
+     */
+    public void setDays(List<Day> days) {
+        mDays = days;
+        mFirstDayOfWeek = days.isEmpty() ? 0 : days.get(0).getDayOfWeek();
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    public List<Day> getDays() {
+        return mDays;
+    }
+
+    /**
+     * Selection is kept by day of month, so it can be set before the days are loaded.
+     */
+    public void selectDay(int dayOfMonth) {
+        mSelectedDay = dayOfMonth;
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    public void clearSelectedDay() {
+        mSelectedDay = -1;
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    private void clickDay(int index) {
+        selectDay(index + 1);
+        if (mOnDayClickListener != null) {
+            mOnDayClickListener.onDayClick(mDays.get(index));
+        }
+        mTouchHelper.sendEventForVirtualView(index, AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    private boolean longClickDay(int index) {
+        if (mOnDayClickListener == null) {
+            return false;
+        }
+        mOnDayClickListener.onDayLongClick(mDays.get(index));
+        mTouchHelper.sendEventForVirtualView(index, AccessibilityEvent.TYPE_VIEW_LONG_CLICKED);
+        return true;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        int cellWidth = (width - getPaddingLeft() - getPaddingRight()) / COLUMNS;
+        int wantedHeight = cellWidth * ROWS + getPaddingTop() + getPaddingBottom();
+        switch (MeasureSpec.getMode(heightMeasureSpec)) {
+            case MeasureSpec.EXACTLY:
+                break;
+            case MeasureSpec.AT_MOST:
+                height = Math.min(height, wantedHeight);
+                break;
+            default:
+                height = wantedHeight;
+        }
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return mGestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean dispatchHoverEvent(MotionEvent event) {
+        return mTouchHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mTouchHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mTouchHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float cellWidth = getCellWidth();
+        float cellHeight = getCellHeight();
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+
+        DayTextCache.Texts headers = mCalendarHandler.getHeaderTexts();
+        mTextPaint.setTypeface(headers.getTypeface());
+        mTextPaint.setTextSize(headers.getTextSize());
+        mTextPaint.setColor(mCalendarHandler.getColorDayName());
+        float baseline = top + cellHeight / 2 + headers.getTextOffset();
+        for (int i = 0; i < COLUMNS; i++) {
+            float centerX = left + (COLUMNS - 1 - i + 0.5f) * cellWidth;
+            canvas.drawText(headers.getHeader(i), centerX - headers.getHeaderWidth(i) / 2, baseline, mTextPaint);
+        }
+
+        if (mDays.isEmpty()) {
+            return;
+        }
+        // Pages are recycled, so the backgrounds are loaded again when they are changed
+        if (mTodayDrawable == null || mTodayBackground != mCalendarHandler.getTodayBackground()) {
+            mTodayBackground = mCalendarHandler.getTodayBackground();
+            mTodayDrawable = ContextCompat.getDrawable(getContext(), mTodayBackground);
+        }
+        if (mSelectedDrawable == null || mSelectedDayBackground != mCalendarHandler.getSelectedDayBackground()) {
+            mSelectedDayBackground = mCalendarHandler.getSelectedDayBackground();
+            mSelectedDrawable = ContextCompat.getDrawable(getContext(), mSelectedDayBackground);
+        }
+
+        DayTextCache.Texts texts = mCalendarHandler.getDayTexts();
+        mTextPaint.setTypeface(texts.getTypeface());
+        mTextPaint.setTextSize(texts.getTextSize());
+        float textOffset = texts.getTextOffset();
+        float markSize = Math.min(cellWidth, cellHeight);
+        boolean showEvents = mCalendarHandler.isHighlightingOfficialEvents();
+        boolean showLocalEvents = mCalendarHandler.isHighlightingLocalEvents();
+
+        for (int i = 0; i < mDays.size(); i++) {
+            Day day = mDays.get(i);
+            int cell = i + COLUMNS + mFirstDayOfWeek;
+            float centerX = left + (COLUMNS - 1 - cell % COLUMNS + 0.5f) * cellWidth;
+            float centerY = top + (cell / COLUMNS + 0.5f) * cellHeight;
+            boolean selected = i + 1 == mSelectedDay;
+
+            if (day.isToday()) {
+                drawBackground(canvas, mTodayDrawable, centerX, centerY, markSize);
+            }
+            if (selected) {
+                drawBackground(canvas, mSelectedDrawable, centerX, centerY, markSize);
+            }
+
+            int color;
+            if (day.isHoliday()) {
+                color = mCalendarHandler.getColorHoliday();
+            } else if (selected) {
+                color = mCalendarHandler.getColorBackground();
+            } else {
+                color = mCalendarHandler.getColorNormalDay();
+            }
+            float numberBaseline = centerY + textOffset;
+            mTextPaint.setColor(color);
+            canvas.drawText(texts.getNumber(i + 1), centerX - texts.getNumberWidth(i + 1) / 2,
+                    numberBaseline, mTextPaint);
+
+            boolean event = day.isEvent() && showEvents;
+            mDayMarks.draw(canvas, centerX, numberBaseline, markSize * 2 / 5,
+                    day.isLocalEvent() && showLocalEvents, color,
+                    event, event ? mCalendarHandler.getEventDotColor(LunarDay.getEventTypes(day), color) : color);
+        }
+    }
+
+    private static void drawBackground(Canvas canvas, Drawable drawable, float centerX, float centerY, float size) {
+        if (drawable == null) {
+            return;
+        }
+        int half = (int) (size * 0.45f);
+        drawable.setBounds((int) centerX - half, (int) centerY - half, (int) centerX + half, (int) centerY + half);
+        drawable.draw(canvas);
+    }
+
+    private float getCellWidth() {
+        return (getWidth() - getPaddingLeft() - getPaddingRight()) / (float) COLUMNS;
+    }
+
+    private float getCellHeight() {
+        return (getHeight() - getPaddingTop() - getPaddingBottom()) / (float) ROWS;
+    }
+
+    private int getDayIndexAt(float x, float y) {
+        int column = (int) ((x - getPaddingLeft()) / getCellWidth());
+        int row = (int) ((y - getPaddingTop()) / getCellHeight());
+        if (column < 0 || column >= COLUMNS || row < 1 || row >= ROWS) {
+            return -1;
+        }
+        int index = row * COLUMNS + (COLUMNS - 1 - column) - COLUMNS - mFirstDayOfWeek;
+        return index >= 0 && index < mDays.size() ? index : -1;
+    }
+
+    private void getDayBounds(int index, Rect bounds) {
+        int cell = index + COLUMNS + mFirstDayOfWeek;
+        float cellWidth = getCellWidth();
+        float cellHeight = getCellHeight();
+        float left = getPaddingLeft() + (COLUMNS - 1 - cell % COLUMNS) * cellWidth;
+        float top = getPaddingTop() + (cell / COLUMNS) * cellHeight;
+        bounds.set((int) left, (int) top, (int) (left + cellWidth), (int) (top + cellHeight));
+    }
+
+    /**
+     * Exposes the days as virtual views, identified by their index in the month.
+     */
+    private class DayTouchHelper extends ExploreByTouchHelper {
+        private final Rect mBounds = new Rect();
+
+        DayTouchHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int index = getDayIndexAt(x, y);
+            return index != -1 ? index : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int i = 0; i < mDays.size(); i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+            if (virtualViewId >= mDays.size()) {
+                // The days changed since the node was asked for
+                node.setContentDescription("");
+                mBounds.set(0, 0, 0, 0);
+                node.setBoundsInParent(mBounds);
+                return;
+            }
+            node.setContentDescription(mCalendarHandler.dayTitleSummary(mDays.get(virtualViewId).getIslamicDate()));
+            getDayBounds(virtualViewId, mBounds);
+            node.setBoundsInParent(mBounds);
+            node.setSelected(virtualViewId + 1 == mSelectedDay);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            if (mOnDayClickListener != null) {
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_LONG_CLICK);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, Bundle arguments) {
+            if (virtualViewId >= mDays.size()) {
+                return false;
+            }
+            switch (action) {
+                case AccessibilityNodeInfoCompat.ACTION_CLICK:
+                    clickDay(virtualViewId);
+                    return true;
+                case AccessibilityNodeInfoCompat.ACTION_LONG_CLICK:
+                    return longClickDay(virtualViewId);
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.gearback.zt.lunarcalendar.core.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.support.v4.content.ContextCompat;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.gearback.zt.calendarcore.core.models.IslamicDate;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+import com.gearback.zt.lunarcalendar.core.helpers.DayTextCache;
+import com.gearback.zt.lunarcalendar.core.models.LunarYear;
+
+/**
+ * Draws the twelve months of an Islamic year as mini-months in a single view, from one
+ * {@link LunarYear} built in one pass. Holidays, events, local events and today are marked like
+ * on the month pages; tapping a month reports it to the listener.
+ *
+ * Months run right to left, three to a row, or four when the view is wider than it is high. In
+ * each month the columns run right to left starting with Saturday, like the month pages.
+ */
+public class YearView extends View {
+    public interface OnMonthClickListener {
+        void onMonthClick(int year, int month);
+    }
+
+    private static final int COLUMNS = 7;
+    // Month name, weekday header and up to six weeks
+    private static final int ROWS = 8;
+    private static final int MONTHS = 12;
+
+    private final LunarCalendarHandler mCalendarHandler;
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final GestureDetector mGestureDetector;
+    private final String[] mMonthNames = new String[MONTHS];
+    private final DayMarks mDayMarks;
+    private final float mMonthPadding;
+
+    private LunarYear mYear;
+    private int mTodayBackground;
+    private Drawable mTodayDrawable;
+    private OnMonthClickListener mOnMonthClickListener;
+
+    public YearView(Context context) {
+        this(context, null);
+    }
+
+    public YearView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mCalendarHandler = LunarCalendarHandler.getInstance(context);
+        float markSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, getResources().getDisplayMetrics());
+        mDayMarks = new DayMarks(markSize, markSize, markSize);
+        mMonthPadding = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 6, getResources().getDisplayMetrics());
+        mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                int month = getMonthAt(e.getX(), e.getY());
+                if (month == -1 || mYear == null) {
+                    return false;
+                }
+                if (mOnMonthClickListener != null) {
+                    mOnMonthClickListener.onMonthClick(mYear.getYear(), month);
+                }
+                return true;
+            }
+        });
+    }
+
+    public void setOnMonthClickListener(OnMonthClickListener onMonthClickListener) {
+        mOnMonthClickListener = onMonthClickListener;
+    }
+
+    /**
+     * Builds the days of the year and the month names drawn for them.
+     */
+    public void setYear(int year) {
+        mYear = mCalendarHandler.getLunarYear(year);
+        for (int month = 1; month <= MONTHS; month++) {
+            mMonthNames[month - 1] = mCalendarHandler.shape(
+                    mCalendarHandler.getMonthName(new IslamicDate(year, month, 1)));
+        }
+        invalidate();
+    }
+
+    /**
+     * @return The year shown, or 0 before one is set
+     */
+    public int getYear() {
+        return mYear != null ? mYear.getYear() : 0;
+    }
+
+    /**
+     * Builds the year shown again, e.g. after its events changed.
+     */
+    public void reload() {
+        if (mYear != null) {
+            setYear(mYear.getYear());
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return mGestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mYear == null) {
+            return;
+        }
+        if (mTodayDrawable == null || mTodayBackground != mCalendarHandler.getTodayBackground()) {
+            mTodayBackground = mCalendarHandler.getTodayBackground();
+            mTodayDrawable = ContextCompat.getDrawable(getContext(), mTodayBackground);
+        }
+        int monthColumns = getMonthColumns();
+        float monthWidth = getMonthWidth(monthColumns);
+        float monthHeight = getMonthHeight(monthColumns);
+        float cellWidth = (monthWidth - mMonthPadding * 2) / COLUMNS;
+        float cellHeight = (monthHeight - mMonthPadding * 2) / ROWS;
+        float markSize = Math.min(cellWidth, cellHeight);
+        DayTextCache.Texts headers = mCalendarHandler.getDayTexts(mCalendarHandler.getHeadersTypeface(),
+                Math.min(mCalendarHandler.getHeadersFontSize(), cellHeight * 0.6f));
+        DayTextCache.Texts days = mCalendarHandler.getDayTexts(mCalendarHandler.getTypeface(),
+                Math.min(mCalendarHandler.getDaysFontSize(), cellHeight * 0.6f));
+
+        for (int month = 1; month <= MONTHS; month++) {
+            int column = monthColumns - 1 - (month - 1) % monthColumns;
+            int row = (month - 1) / monthColumns;
+            float left = getPaddingLeft() + column * monthWidth + mMonthPadding;
+            float top = getPaddingTop() + row * monthHeight + mMonthPadding;
+            drawMonth(canvas, month, left, top, cellWidth, cellHeight, markSize, headers, days);
+        }
+    }
+
+    private void drawMonth(Canvas canvas, int month, float left, float top, float cellWidth, float cellHeight,
+                           float markSize, DayTextCache.Texts headers, DayTextCache.Texts days) {
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+        mTextPaint.setTypeface(mCalendarHandler.getHeadersTypeface());
+        mTextPaint.setTextSize(Math.min(mCalendarHandler.getHeadersFontSize(), cellHeight * 0.8f));
+        mTextPaint.setColor(mCalendarHandler.getColorNormalDay());
+        float textOffset = -(mTextPaint.descent() + mTextPaint.ascent()) / 2;
+        canvas.drawText(mMonthNames[month - 1], left + cellWidth * COLUMNS / 2,
+                top + cellHeight / 2 + textOffset, mTextPaint);
+
+        mTextPaint.setTextAlign(Paint.Align.LEFT);
+        mTextPaint.setTextSize(headers.getTextSize());
+        mTextPaint.setColor(mCalendarHandler.getColorDayName());
+        for (int i = 0; i < COLUMNS; i++) {
+            float centerX = left + (COLUMNS - 1 - i + 0.5f) * cellWidth;
+            canvas.drawText(headers.getHeader(i), centerX - headers.getHeaderWidth(i) / 2,
+                    top + cellHeight * 1.5f + headers.getTextOffset(), mTextPaint);
+        }
+
+        mTextPaint.setTypeface(days.getTypeface());
+        mTextPaint.setTextSize(days.getTextSize());
+        textOffset = days.getTextOffset();
+        int first = mYear.getDayOfYear(month, 1);
+        int firstDayOfWeek = mYear.getDayOfWeek(first);
+        int monthLength = mYear.getMonthLength(month);
+        for (int i = 0; i < monthLength; i++) {
+            int day = first + i;
+            int cell = i + COLUMNS * 2 + firstDayOfWeek;
+            float centerX = left + (COLUMNS - 1 - cell % COLUMNS + 0.5f) * cellWidth;
+            float centerY = top + (cell / COLUMNS + 0.5f) * cellHeight;
+
+            if (mYear.isToday(day) && mTodayDrawable != null) {
+                int half = (int) (markSize * 0.5f);
+                mTodayDrawable.setBounds((int) centerX - half, (int) centerY - half,
+                        (int) centerX + half, (int) centerY + half);
+                mTodayDrawable.draw(canvas);
+            }
+
+            int color = mYear.isHoliday(day)
+                    ? mCalendarHandler.getColorHoliday()
+                    : mCalendarHandler.getColorNormalDay();
+            mTextPaint.setColor(color);
+            float numberBaseline = centerY + textOffset;
+            canvas.drawText(days.getNumber(i + 1), centerX - days.getNumberWidth(i + 1) / 2,
+                    numberBaseline, mTextPaint);
+
+            boolean event = mYear.isEvent(day);
+            mDayMarks.draw(canvas, centerX, numberBaseline, markSize / 2, mYear.isLocalEvent(day), color,
+                    event, event ? mCalendarHandler.getEventDotColor(mYear.getEventTypes(day), color) : 0);
+        }
+    }
+
+    private int getMonthColumns() {
+        return getWidth() > getHeight() ? 4 : 3;
+    }
+
+    private float getMonthWidth(int monthColumns) {
+        return (getWidth() - getPaddingLeft() - getPaddingRight()) / (float) monthColumns;
+    }
+
+    private float getMonthHeight(int monthColumns) {
+        return (getHeight() - getPaddingTop() - getPaddingBottom()) / (float) (MONTHS / monthColumns);
+    }
+
+    private int getMonthAt(float x, float y) {
+        int monthColumns = getMonthColumns();
+        int column = (int) ((x - getPaddingLeft()) / getMonthWidth(monthColumns));
+        int row = (int) ((y - getPaddingTop()) / getMonthHeight(monthColumns));
+        if (column < 0 || column >= monthColumns || row < 0 || row >= MONTHS / monthColumns) {
+            return -1;
+        }
+        return row * monthColumns + (monthColumns - 1 - column) + 1;
+    }
+}
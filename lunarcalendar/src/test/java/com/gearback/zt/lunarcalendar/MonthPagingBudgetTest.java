@@ -0,0 +1,350 @@
+package com.gearback.zt.lunarcalendar;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.content.LocalBroadcastManager;
+import android.support.v7.app.AppCompatActivity;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.xmlpull.v1.XmlPullParser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gearback.zt.calendarcore.core.Constants;
+import com.gearback.zt.lunarcalendar.core.CalendarMetricsListener;
+import com.gearback.zt.lunarcalendar.core.LunarCalendarHandler;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthLoader;
+import com.gearback.zt.lunarcalendar.core.helpers.MonthPageDispatcher;
+
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Swipes a {@link LunarCalendarView} back and forth and fails when a single swipe does more work
+ * than its budget: layout inflations, month pages registered, day cells bound, fragment creations,
+ * broadcasts and month lookups ({@code getDays} and {@code peekDays}). The pager is warmed up
+ * first, so the budgets are those of a swipe once the neighbouring pages exist.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MonthPagingBudgetTest {
+    private static final int SWIPES = 24;
+    private static final int WARM_UP_SWIPES = 3;
+    private static final long SETTLE_TIMEOUT_MS = 5000;
+
+    /**
+     * One month page comes in per swipe and up to four months around it are looked up for
+     * prefetching, then the new month is built in the background.
+     */
+    private static final int MONTH_LOOKUPS_PER_SWIPE = 6;
+    private static final int DAY_ITEMS_PER_MONTH = 7 * 7;
+    /**
+     * Moving the selected day rebinds the cells that were and are now selected, nothing else.
+     */
+    private static final int DAY_ITEMS_PER_SELECTION = 2;
+
+    private LunarCalendarHandler mHandler;
+    private CountingDispatcher mDispatcher;
+    private CountingMetrics mMetrics;
+    private final AtomicInteger mBroadcasts = new AtomicInteger();
+
+    private final BroadcastReceiver mBroadcastCounter = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mBroadcasts.incrementAndGet();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mHandler = LunarCalendarHandler.getInstance(RuntimeEnvironment.application);
+        mHandler.getMonthCache().clear();
+        mDispatcher = new CountingDispatcher();
+        mHandler.setMonthPageDispatcher(mDispatcher);
+        mMetrics = new CountingMetrics();
+        mHandler.setMetricsListener(mMetrics);
+
+        IntentFilter filter = new IntentFilter(Constants.BROADCAST_INTENT_TO_MONTH_FRAGMENT);
+        filter.addAction(Constants.BROADCAST_UPDATE_EVENTS);
+        LocalBroadcastManager.getInstance(RuntimeEnvironment.application).registerReceiver(mBroadcastCounter, filter);
+    }
+
+    @After
+    public void tearDown() {
+        LocalBroadcastManager.getInstance(RuntimeEnvironment.application).unregisterReceiver(mBroadcastCounter);
+        mHandler.setDrawMonthsOnCanvas(true).setRecycleMonthPages(true);
+        mHandler.setMonthPageDispatcher(new MonthPageDispatcher());
+        mHandler.setMetricsListener(null);
+    }
+
+    @Test
+    public void recycledMonthPages() {
+        mHandler.setDrawMonthsOnCanvas(true).setRecycleMonthPages(true);
+        swipeWithin(new Budget(0, 1, 0, 0, 0, MONTH_LOOKUPS_PER_SWIPE));
+    }
+
+    @Test
+    public void monthFragmentsDrawnOnCanvas() {
+        mHandler.setDrawMonthsOnCanvas(true).setRecycleMonthPages(false);
+        swipeWithin(new Budget(0, 1, 0, 1, 0, MONTH_LOOKUPS_PER_SWIPE));
+    }
+
+    @Test
+    public void monthFragmentsWithDayItems() {
+        mHandler.setDrawMonthsOnCanvas(false);
+        swipeWithin(new Budget(1 + DAY_ITEMS_PER_MONTH, 1, DAY_ITEMS_PER_MONTH, 1, 0, MONTH_LOOKUPS_PER_SWIPE));
+    }
+
+    @Test
+    public void daySelectionWithDayItems() {
+        mHandler.setDrawMonthsOnCanvas(false);
+        ActivityController<SwipeActivity> controller = Robolectric.buildActivity(SwipeActivity.class).setup();
+        settle();
+
+        for (int day = 1; day <= 10; day++) {
+            int before = mMetrics.mDayCellBinds.get();
+            mHandler.getMonthPageDispatcher().dispatchDaySelected(0, day);
+            settle();
+            int binds = mMetrics.mDayCellBinds.get() - before;
+            assertTrue("Selecting day " + day + " bound " + binds + " cells, over the budget of "
+                    + DAY_ITEMS_PER_SELECTION, binds <= DAY_ITEMS_PER_SELECTION);
+        }
+
+        controller.pause().stop().destroy();
+    }
+
+    private void swipeWithin(Budget budget) {
+        ActivityController<SwipeActivity> controller = Robolectric.buildActivity(SwipeActivity.class).setup();
+        SwipeActivity activity = controller.get();
+        final AtomicInteger fragments = new AtomicInteger();
+        activity.getSupportFragmentManager().registerFragmentLifecycleCallbacks(
+                new FragmentManager.FragmentLifecycleCallbacks() {
+                    @Override
+                    public void onFragmentCreated(FragmentManager fm, Fragment f, Bundle savedInstanceState) {
+                        fragments.incrementAndGet();
+                    }
+                }, true);
+        settle();
+
+        for (int i = 0; i < WARM_UP_SWIPES; i++) {
+            activity.mCalendarView.goToNextMonth();
+            settle();
+        }
+        for (int i = 0; i < WARM_UP_SWIPES; i++) {
+            activity.mCalendarView.goToPreviousMonth();
+            settle();
+        }
+
+        for (int i = 0; i < SWIPES * 2; i++) {
+            Budget before = new Budget(activity.mInflations.get(), mDispatcher.mPages,
+                    mMetrics.mDayCellBinds.get(), fragments.get(), countBroadcasts(), countMonthLookups());
+            if (i < SWIPES) {
+                activity.mCalendarView.goToNextMonth();
+            } else {
+                activity.mCalendarView.goToPreviousMonth();
+            }
+            settle();
+            Budget swipe = new Budget(activity.mInflations.get() - before.mInflations,
+                    mDispatcher.mPages - before.mPages,
+                    mMetrics.mDayCellBinds.get() - before.mDayCellBinds,
+                    fragments.get() - before.mFragments,
+                    countBroadcasts() - before.mBroadcasts,
+                    countMonthLookups() - before.mMonthLookups);
+            assertTrue("Swipe " + i + " did " + swipe + ", over the budget of " + budget, swipe.isWithin(budget));
+        }
+
+        controller.pause().stop().destroy();
+    }
+
+    private int countBroadcasts() {
+        return mBroadcasts.get() + shadowOf(RuntimeEnvironment.application).getBroadcastIntents().size();
+    }
+
+    private int countMonthLookups() {
+        return mHandler.getMonthCache().getHitCount() + mHandler.getMonthCache().getMissCount();
+    }
+
+    /**
+     * Runs the main looper until the months being computed in the background are delivered.
+     */
+    private void settle() {
+        MonthLoader loader = mHandler.getMonthLoader();
+        long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT_MS;
+        while (true) {
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            if (loader.isIdle() || System.currentTimeMillis() > deadline) {
+                return;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static class Budget {
+        final int mInflations;
+        final int mPages;
+        final int mDayCellBinds;
+        final int mFragments;
+        final int mBroadcasts;
+        final int mMonthLookups;
+
+        Budget(int inflations, int pages, int dayCellBinds, int fragments, int broadcasts, int monthLookups) {
+            mInflations = inflations;
+            mPages = pages;
+            mDayCellBinds = dayCellBinds;
+            mFragments = fragments;
+            mBroadcasts = broadcasts;
+            mMonthLookups = monthLookups;
+        }
+
+        boolean isWithin(Budget budget) {
+            return mInflations <= budget.mInflations
+                    && mPages <= budget.mPages
+                    && mDayCellBinds <= budget.mDayCellBinds
+                    && mFragments <= budget.mFragments
+                    && mBroadcasts <= budget.mBroadcasts
+                    && mMonthLookups <= budget.mMonthLookups;
+        }
+
+        @Override
+        public String toString() {
+            return "{inflations=" + mInflations + ", pages=" + mPages + ", dayCellBinds=" + mDayCellBinds
+                    + ", fragments=" + mFragments
+                    + ", broadcasts=" + mBroadcasts + ", monthLookups=" + mMonthLookups + "}";
+        }
+    }
+
+    /**
+     * Counts month pages being bound, which register with the dispatcher whether they are
+     * fragments or recycled page views.
+     */
+    private static class CountingDispatcher extends MonthPageDispatcher {
+        int mPages;
+
+        @Override
+        public void register(int offset, OnMonthPageListener listener) {
+            mPages++;
+            super.register(offset, listener);
+        }
+    }
+
+    /**
+     * Counts the day cells bound by {@code MonthAdapter}, for pages laid out with a view per day.
+     */
+    private static class CountingMetrics implements CalendarMetricsListener {
+        final AtomicInteger mDayCellBinds = new AtomicInteger();
+
+        @Override
+        public void onEventsCatalogLoaded(int eventCount, long durationNanos) {
+        }
+
+        @Override
+        public void onMonthCacheLookup(int year, int month, boolean hit) {
+        }
+
+        @Override
+        public void onMonthBuilt(int year, int month, int eventCount, long durationNanos) {
+        }
+
+        @Override
+        public void onMonthPageBound(int offset, long durationNanos) {
+        }
+
+        @Override
+        public void onDayCellBound() {
+            mDayCellBinds.incrementAndGet();
+        }
+
+        @Override
+        public void onFirstFrameAfterSwipe(int offset, long durationNanos) {
+        }
+    }
+
+    public static class SwipeActivity extends AppCompatActivity {
+        final AtomicInteger mInflations = new AtomicInteger();
+        LunarCalendarView mCalendarView;
+        private LayoutInflater mInflater;
+
+        @Override
+        protected void onCreate(Bundle savedInstanceState) {
+            setTheme(R.style.Theme_AppCompat_Light_NoActionBar);
+            super.onCreate(savedInstanceState);
+            mCalendarView = new LunarCalendarView(this);
+            setContentView(mCalendarView);
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+                if (mInflater == null) {
+                    mInflater = new CountingLayoutInflater(
+                            (LayoutInflater) super.getSystemService(name), this, mInflations);
+                }
+                return mInflater;
+            }
+            return super.getSystemService(name);
+        }
+    }
+
+    /**
+     * Counts every layout inflated through the activity, its fragments and their views.
+     */
+    private static class CountingLayoutInflater extends LayoutInflater {
+        private static final String[] CLASS_PREFIXES = {"android.widget.", "android.webkit.", "android.app."};
+
+        private final AtomicInteger mInflations;
+
+        CountingLayoutInflater(LayoutInflater original, Context newContext, AtomicInteger inflations) {
+            super(original, newContext);
+            mInflations = inflations;
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new CountingLayoutInflater(this, newContext, mInflations);
+        }
+
+        @Override
+        public View inflate(XmlPullParser parser, ViewGroup root, boolean attachToRoot) {
+            mInflations.incrementAndGet();
+            return super.inflate(parser, root, attachToRoot);
+        }
+
+        @Override
+        protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
+            for (String prefix : CLASS_PREFIXES) {
+                try {
+                    View view = createView(name, prefix, attrs);
+                    if (view != null) {
+                        return view;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // Try the next package, as the platform inflater does
+                }
+            }
+            return super.onCreateView(name, attrs);
+        }
+    }
+}